@@ -0,0 +1 @@
+powershell -ExecutionPolicy Bypass -File bench.ps1 %*
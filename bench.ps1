@@ -0,0 +1,29 @@
+cd ..
+cd simple-bank
+# JMH benchmarks (src/bench). Usage: bench.bat [JMH options], e.g. bench.bat LedgerRead -p ledgerRows=100000
+# JMH jars are downloaded once into bench-lib; results go to bench-results as JSON, one file per run.
+$jmhVersion = "1.37"
+$central = "https://repo1.maven.org/maven2"
+$jars = @(
+    "org/openjdk/jmh/jmh-core/$jmhVersion/jmh-core-$jmhVersion.jar",
+    "org/openjdk/jmh/jmh-generator-annprocess/$jmhVersion/jmh-generator-annprocess-$jmhVersion.jar",
+    "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar",
+    "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+)
+New-Item -ItemType Directory -Force -Path "bench-lib" | Out-Null
+foreach ($jar in $jars) {
+    $target = Join-Path "bench-lib" (Split-Path $jar -Leaf)
+    if (-not (Test-Path $target)) {
+        Invoke-WebRequest -Uri "$central/$jar" -OutFile $target
+    }
+}
+Remove-Item -Recurse -Force -ErrorAction SilentlyContinue "bench-build"
+New-Item -ItemType Directory -Force -Path "bench-build" | Out-Null
+$sourceFiles = Get-ChildItem -Recurse -Filter *.java -Path src | ForEach-Object { $_.FullName }
+javac -d "bench-build" -cp "WEB-INF/lib/*;bench-lib/*" -processor org.openjdk.jmh.generators.BenchmarkProcessor -sourcepath "src" $sourceFiles
+if ($LASTEXITCODE -eq 0) {
+    New-Item -ItemType Directory -Force -Path "bench-results" | Out-Null
+    $stamp = Get-Date -Format "yyyyMMdd-HHmmss"
+    java "-Dbench.templateDb=src/simple_bank.db" -cp "bench-build;WEB-INF/lib/*;bench-lib/*" org.openjdk.jmh.Main -rf json -rff "bench-results/jmh-$stamp.json" @args
+}
+cd ..
@@ -0,0 +1,171 @@
+package bench;
+
+import db.DatabaseUtil;
+import db.LedgerWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Throwaway SQLite database for one benchmark trial.
+ * Copies the shipped schema (-Dbench.templateDb, default simple_bank.db) to a temporary file, fills the
+ * ledger with a fixed-seed mix of deposits, withdrawals and transfers, and points the application at it
+ * (simplebank.db.url) before anything touches DatabaseUtil. Startup migrations then build Account_Balance
+ * and the indexes exactly as in production (or, for an already migrated template, Account_Balance is rebuilt here).
+ * DatabaseUtil is a per-JVM singleton, so every trial must run in its own fork (JMH's default).
+ */
+public class BenchDatabase {
+
+    /** Account behind about one ledger row in ten; the account read by the ledger benchmarks. */
+    public static final String HOT_ACCOUNT = "BENCH0000000";
+    /** Two accounts with large opening deposits, for transfers and teller postings. */
+    public static final String FUNDED_ACCOUNT_A = "BENCH0000001";
+    public static final String FUNDED_ACCOUNT_B = "BENCH0000002";
+
+    private static final int OTHER_ACCOUNTS = 1000;
+    private static final int HOT_SHARE = 10;
+    private static final int BATCH_SIZE = 10_000;
+    private static final long SEED = 42L;
+    private static final String PASSWORD_HASH = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+    private final Path file;
+
+    private BenchDatabase(Path file) {
+        this.file = file;
+    }
+
+    /** Creates the database with about ledgerRows Transactions rows and makes it the application database. */
+    public static BenchDatabase create(int ledgerRows) throws IOException, SQLException {
+        Path template = Paths.get(System.getProperty("bench.templateDb", "simple_bank.db"));
+        if (!Files.isRegularFile(template)) {
+            throw new IOException("Template database not found: " + template.toAbsolutePath()
+                    + " (set -Dbench.templateDb)");
+        }
+        Path file = Files.createTempFile("simplebank-bench-", ".db");
+        Files.copy(template, file, StandardCopyOption.REPLACE_EXISTING);
+        String url = "jdbc:sqlite:" + file.toAbsolutePath().toString().replace('\\', '/');
+
+        long start = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(url)) {
+            populate(conn, ledgerRows);
+        }
+        System.out.println("Benchmark database " + file + ": " + ledgerRows + " ledger rows in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        System.setProperty("simplebank.db.url", url);
+        DatabaseUtil.getPool(); // Runs the migrations now rather than inside the first measured call
+        return new BenchDatabase(file);
+    }
+
+    private static void populate(Connection conn, int ledgerRows) throws SQLException {
+        conn.setAutoCommit(false);
+
+        String customerSql = "INSERT INTO Customer (name, mobile, email, accountno, password) VALUES (?, ?, NULL, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(customerSql)) {
+            for (int i = 0; i < OTHER_ACCOUNTS + 3; i++) {
+                pstmt.setString(1, "Bench Customer " + i);
+                pstmt.setString(2, String.format("9%010d", i));
+                pstmt.setString(3, account(i));
+                pstmt.setString(4, PASSWORD_HASH);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        String txnSql = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+        Random random = new Random(SEED);
+        long now = System.currentTimeMillis() / 1000;
+        try (PreparedStatement pstmt = conn.prepareStatement(txnSql)) {
+            // Opening balances, so transfers and withdrawals never overdraw
+            for (String funded : new String[] { FUNDED_ACCOUNT_A, FUNDED_ACCOUNT_B }) {
+                addTxn(pstmt, funded, 1e12, funded, null, "Deposit", now - 3 * 365 * 86400L);
+            }
+            pstmt.executeBatch();
+
+            int rows = 0;
+            int pending = 0;
+            while (rows < ledgerRows) {
+                String acc = random.nextInt(HOT_SHARE) == 0 ? HOT_ACCOUNT : account(3 + random.nextInt(OTHER_ACCOUNTS));
+                double amount = 1 + random.nextInt(500_000) / 100.0;
+                long when = now - (long) random.nextInt(2 * 365 * 86400); // Last two years
+                int kind = random.nextInt(10);
+                if (kind < 5) {
+                    addTxn(pstmt, acc, amount, acc, null, "Deposit", when);
+                    rows++;
+                    pending++;
+                } else if (kind < 8) {
+                    addTxn(pstmt, acc, amount / 4, null, acc, "Withdrawal", when);
+                    rows++;
+                    pending++;
+                } else {
+                    String other = account(3 + random.nextInt(OTHER_ACCOUNTS));
+                    addTxn(pstmt, acc, amount / 4, other, acc, "Transfer Out", when);
+                    addTxn(pstmt, other, amount / 4, other, acc, "Transfer In", when);
+                    rows += 2;
+                    pending += 2;
+                }
+                if (pending >= BATCH_SIZE) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            pstmt.executeBatch();
+        }
+        rebuildBalances(conn);
+        conn.commit();
+    }
+
+    // Only for a template the application has already migrated; otherwise migration 1 does this on startup
+    private static void rebuildBalances(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'Account_Balance'")) {
+            if (!rs.next()) {
+                return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM Account_Balance");
+            stmt.execute("INSERT INTO Account_Balance (accno, balance) SELECT accountno, 0 FROM Customer");
+            stmt.execute("INSERT INTO Account_Balance (accno, balance) " +
+                    "SELECT accno, COALESCE(SUM(CASE WHEN to_acc = accno THEN amount WHEN from_acc = accno THEN -amount ELSE 0 END), 0) " +
+                    "FROM Transactions WHERE true GROUP BY accno " +
+                    "ON CONFLICT(accno) DO UPDATE SET balance = excluded.balance");
+        }
+    }
+
+    private static void addTxn(PreparedStatement pstmt, String accno, double amount, String toAcc, String fromAcc,
+                               String type, long epochSeconds) throws SQLException {
+        pstmt.setString(1, accno);
+        pstmt.setDouble(2, amount);
+        pstmt.setString(3, toAcc);
+        pstmt.setString(4, fromAcc);
+        pstmt.setString(5, type);
+        pstmt.setString(6, LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC).toString().replace('T', ' '));
+        pstmt.addBatch();
+    }
+
+    private static String account(int i) {
+        return String.format("BENCH%07d", i);
+    }
+
+    /** Stops the ledger writer and pool and deletes the database files. */
+    public void close() throws IOException {
+        LedgerWriter.shutdown();
+        DatabaseUtil.shutdown();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Paths.get(file + "-wal"));
+        Files.deleteIfExists(Paths.get(file + "-shm"));
+    }
+}
\ No newline at end of file
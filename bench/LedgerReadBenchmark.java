@@ -0,0 +1,61 @@
+package bench;
+
+import db.CustomerDB;
+import model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance and transaction history reads of the busiest account, at three ledger sizes.
+ * The account holds about a tenth of the ledger, so getTransactionsForAccount returns roughly
+ * 100, 10k and 100k rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerReadBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int ledgerRows;
+
+    private BenchDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchDatabase.create(ledgerRows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public double getCustomerBalance() {
+        return CustomerDB.getCustomerBalance(BenchDatabase.HOT_ACCOUNT);
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsForAccount() {
+        return CustomerDB.getTransactionsForAccount(BenchDatabase.HOT_ACCOUNT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package bench;
+
+import db.CustomerDB;
+import db.StaffDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer transfers and teller postings, end to end: account locks, ledger writer group commit,
+ * balance update. Each call commits, so results depend on the disk; run with -t to see group commit
+ * amortize the fsync across threads. Transfers alternate direction so neither account runs dry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerWriteBenchmark {
+
+    @Param({ "100000" })
+    public int ledgerRows;
+
+    private BenchDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchDatabase.create(ledgerRows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    /** Per-thread transfer direction. */
+    @State(Scope.Thread)
+    public static class Direction {
+        boolean forward;
+    }
+
+    @Benchmark
+    public boolean performTransfer(Direction direction) {
+        direction.forward = !direction.forward;
+        return direction.forward
+                ? CustomerDB.performTransfer(BenchDatabase.FUNDED_ACCOUNT_A, BenchDatabase.FUNDED_ACCOUNT_B, 1.0)
+                : CustomerDB.performTransfer(BenchDatabase.FUNDED_ACCOUNT_B, BenchDatabase.FUNDED_ACCOUNT_A, 1.0);
+    }
+
+    @Benchmark
+    public boolean performDepositWithdrawal() {
+        return StaffDB.performDepositWithdrawal(BenchDatabase.FUNDED_ACCOUNT_A, 1.0, true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package bench;
+
+import db.CustomerDB;
+import db.LoanValuator;
+import model.Loan;
+import model.LoanValuation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan payoff calculation. calculateLoanRepayAmount is what the dashboards call and is served from
+ * LoanValuator's per-day cache after the first call; valueUncached is the full computation behind it.
+ * Loans are in-memory with fixed-seed rates, dates and durations (some overdue, so the penalty rate applies).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoanBenchmark {
+
+    private static final int LOANS = 1024; // Power of two, for the index mask
+
+    private Loan[] loans;
+    private LocalDate today;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        today = LocalDate.now();
+        loans = new Loan[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            LocalDate created = today.minusDays(random.nextInt(10 * 365));
+            loans[i] = new Loan(i + 1, 10_000 + random.nextInt(1_000_000), "BENCH" + i,
+                    4 + random.nextInt(12) / 2.0, created.toString(), 1 + random.nextInt(5));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateLoanRepayAmount() {
+        return CustomerDB.calculateLoanRepayAmount(loans[next++ & (LOANS - 1)]);
+    }
+
+    @Benchmark
+    public LoanValuation valueUncached() {
+        return LoanValuator.value(loans[next++ & (LOANS - 1)], today);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 cd ..
 cd simple-bank
-$sourceFiles = Get-ChildItem -Recurse -Filter *.java -Path src | ForEach-Object { $_.FullName }
+# src/bench holds the JMH benchmarks (bench.bat), which are not part of the web application
+$sourceFiles = Get-ChildItem -Recurse -Filter *.java -Path src | Where-Object { $_.FullName -notlike "*\src\bench\*" } | ForEach-Object { $_.FullName }
 javac -d "WEB-INF/classes" -cp "WEB-INF/lib/*" -sourcepath "src" $sourceFiles
 cd ..
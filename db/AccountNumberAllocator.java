@@ -0,0 +1,159 @@
+package db;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out new customer account numbers: "ACC" + 8-digit serial + Luhn check digit, e.g. ACC100000009.
+ * Serials are reserved from the database in blocks (Account_Number_Block) and then handed out from
+ * memory, so allocating is an atomic increment; only reserving the next block touches the database.
+ * Blocks never overlap, even across restarts or several application instances on the same database.
+ * Serials left in a block when the application stops are skipped, never reused.
+ */
+public class AccountNumberAllocator {
+
+    private static final String PREFIX = "ACC";
+    private static final int SERIAL_DIGITS = 8;
+    private static final long FIRST_SERIAL = 10_000_000L;
+
+    private static final int BLOCK_SIZE = DatabaseUtil.getConfig().getInt("accountNumber.blockSize", 100);
+
+    private static volatile Block current = null;
+
+    /**
+     * Next unused account number. Reserves a new block from the database when the current one runs out.
+     */
+    public static String next() throws SQLException {
+        while (true) {
+            Block block = current;
+            if (block != null) {
+                long serial = block.next.getAndIncrement();
+                if (serial <= block.last) {
+                    return format(serial);
+                }
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Reserves count consecutive account numbers as one block of their own, for bulk loads
+     * (tools.DataGenerator). They never overlap numbers handed out by next().
+     */
+    public static List<String> reserve(int count) throws SQLException {
+        Block block = reserveBlock(count);
+        List<String> numbers = new ArrayList<>(count);
+        for (long serial = block.next.get(); serial <= block.last; serial++) {
+            numbers.add(format(serial));
+        }
+        return numbers;
+    }
+
+    /**
+     * True if the value has the allocator's format and a valid check digit.
+     * Account numbers entered by hand before the allocator existed (e.g. ACC123) are not "valid" in this sense.
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != PREFIX.length() + SERIAL_DIGITS + 1
+                || !accountNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        String digits = accountNumber.substring(PREFIX.length());
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return false;
+            }
+        }
+        return checkDigit(digits.substring(0, SERIAL_DIGITS)) == digits.charAt(SERIAL_DIGITS) - '0';
+    }
+
+    // Only one thread reserves; the others wait here and then use the block it installed
+    private static synchronized void refill(Block exhausted) throws SQLException {
+        if (current != exhausted) {
+            return; // Another thread already installed a fresh block
+        }
+        current = reserveBlock(BLOCK_SIZE);
+    }
+
+    private static Block reserveBlock(int size) throws SQLException {
+        // One statement, so two instances reserving at the same time still get disjoint ranges
+        String reserveSQL = "INSERT INTO Account_Number_Block (first_serial, last_serial, reserved_at) " +
+                            "SELECT COALESCE(MAX(last_serial), ?) + 1, COALESCE(MAX(last_serial), ?) + ?, CURRENT_TIMESTAMP " +
+                            "FROM Account_Number_Block";
+        String readSQL = "SELECT first_serial, last_serial FROM Account_Number_Block WHERE id = ?";
+        Connection conn = null;
+        PreparedStatement pstmtReserve = null;
+        PreparedStatement pstmtRead = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmtReserve = conn.prepareStatement(reserveSQL, Statement.RETURN_GENERATED_KEYS);
+            pstmtReserve.setLong(1, FIRST_SERIAL - 1);
+            pstmtReserve.setLong(2, FIRST_SERIAL - 1);
+            pstmtReserve.setInt(3, size);
+            pstmtReserve.executeUpdate();
+            long blockId;
+            try (ResultSet keys = pstmtReserve.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Reserving account number block failed, no ID obtained.");
+                }
+                blockId = keys.getLong(1);
+            }
+
+            pstmtRead = conn.prepareStatement(readSQL);
+            pstmtRead.setLong(1, blockId);
+            rs = pstmtRead.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Reserved account number block " + blockId + " not found.");
+            }
+            long first = rs.getLong("first_serial");
+            long last = rs.getLong("last_serial");
+            if (last >= FIRST_SERIAL * 10) {
+                throw new SQLException("Account number serials exhausted (" + SERIAL_DIGITS + " digits).");
+            }
+            System.out.println("Reserved account number block " + blockId + ": serials " + first + "-" + last);
+            return new Block(first, last);
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmtRead);
+            DatabaseUtil.closeQuietly(pstmtReserve);
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+
+    private static String format(long serial) {
+        String digits = String.format("%0" + SERIAL_DIGITS + "d", serial);
+        return PREFIX + digits + checkDigit(digits);
+    }
+
+    // Luhn check digit: catches any single mistyped digit and most swapped neighbours
+    private static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubleIt = true; // Rightmost payload digit is doubled, since the check digit goes after it
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubleIt) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+            doubleIt = !doubleIt;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static class Block {
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
\ No newline at end of file
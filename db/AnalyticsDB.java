@@ -0,0 +1,245 @@
+package db;
+
+import model.ActivityStat;
+import model.GrievanceBacklog;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manager analytics over precomputed ledger roll-ups.
+ * Txn_Hourly_Stats and Txn_Daily_Stats hold a count and total per category and hour/day. The roll-up
+ * job adds only the Transactions rows after the last id it processed (Analytics_Rollup_State), so each
+ * ledger row is read once, and the dashboard reads a few hundred aggregate rows instead of the ledger.
+ * Ledger rows are never updated or deleted, which is what makes the id watermark enough.
+ */
+public class AnalyticsDB {
+
+    private static final int ROLLUP_BATCH_SIZE = DatabaseUtil.getConfig().getInt("analytics.rollupBatchSize", 2000);
+
+    private static final String STATE_NAME = "transactions";
+
+    // Ledger type -> dashboard category. "Transfer In" is the mirror row of a "Transfer Out" and is not counted.
+    private static final String CATEGORY_SQL =
+            "CASE WHEN type = 'Deposit' THEN 'Deposit' " +
+            "WHEN type = 'Withdrawal' THEN 'Withdrawal' " +
+            "WHEN type = 'Transfer Out' THEN 'Transfer' " +
+            "WHEN type = 'Loan Taken' THEN 'LoanDisbursement' " +
+            "WHEN type LIKE 'Loan Repaid%' THEN 'LoanRepayment' " +
+            "WHEN type LIKE 'FD Opened%' THEN 'FDOpened' " +
+            "WHEN type LIKE 'FD Closed%' THEN 'FDClosed' " +
+            "ELSE 'Other' END";
+
+    /** Outcome of one roll-up run. */
+    public static class Summary {
+        private final int rowsProcessed;
+        private final long lastTxnId;
+        private final long elapsedMillis;
+
+        Summary(int rowsProcessed, long lastTxnId, long elapsedMillis) {
+            this.rowsProcessed = rowsProcessed;
+            this.lastTxnId = lastTxnId;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getRowsProcessed() {
+            return rowsProcessed;
+        }
+
+        public long getLastTxnId() {
+            return lastTxnId;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rolled up %d ledger row(s) through transaction %d in %d ms.",
+                    rowsProcessed, lastTxnId, elapsedMillis);
+        }
+    }
+
+    // --- Roll-up ---
+
+    /**
+     * Adds every ledger row after the watermark to the hourly and daily tables, in id ranges of
+     * analytics.rollupBatchSize. Each range and its watermark move are one ledger-writer transaction,
+     * so a crash never counts a row twice or skips one. Those transactions share the single writer with
+     * customer transfers and teller postings, which wait behind each one, so ranges are kept small: a
+     * backlog is worked off in many short batches with other writes interleaved between them.
+     */
+    public static synchronized Summary rollup() throws SQLException {
+        long start = System.currentTimeMillis();
+        int processed = 0;
+        long lastId;
+        while (true) {
+            long[] range = LedgerWriter.submit(AnalyticsDB::rollupBatch); // {rows, new watermark}
+            processed += (int) range[0];
+            lastId = range[1];
+            if (range[0] == 0) {
+                break;
+            }
+        }
+        Summary summary = new Summary(processed, lastId, System.currentTimeMillis() - start);
+        if (processed > 0) {
+            System.out.println("Analytics roll-up: " + summary);
+        }
+        return summary;
+    }
+
+    // Runs on the ledger writer's connection; returns {rows rolled up, watermark after this batch}
+    private static long[] rollupBatch(Connection conn) throws SQLException {
+        String stateSQL = "SELECT last_txn_id FROM Analytics_Rollup_State WHERE name = ?";
+        String rangeSQL = "SELECT COUNT(*), MAX(id) FROM (SELECT id FROM Transactions WHERE id > ? ORDER BY id LIMIT ?)";
+        String hourlySQL = "INSERT INTO Txn_Hourly_Stats (hour, category, txn_count, total_amount) " +
+                           "SELECT substr(Timestamp, 1, 13), " + CATEGORY_SQL + ", COUNT(*), SUM(amount) " +
+                           "FROM Transactions WHERE id > ? AND id <= ? AND type <> 'Transfer In' GROUP BY 1, 2 " +
+                           "ON CONFLICT(hour, category) DO UPDATE SET " +
+                           "txn_count = txn_count + excluded.txn_count, total_amount = total_amount + excluded.total_amount";
+        String dailySQL = "INSERT INTO Txn_Daily_Stats (day, category, txn_count, total_amount) " +
+                          "SELECT substr(Timestamp, 1, 10), " + CATEGORY_SQL + ", COUNT(*), SUM(amount) " +
+                          "FROM Transactions WHERE id > ? AND id <= ? AND type <> 'Transfer In' GROUP BY 1, 2 " +
+                          "ON CONFLICT(day, category) DO UPDATE SET " +
+                          "txn_count = txn_count + excluded.txn_count, total_amount = total_amount + excluded.total_amount";
+        String advanceSQL = "UPDATE Analytics_Rollup_State SET last_txn_id = ?, updated_at = CURRENT_TIMESTAMP " +
+                            "WHERE name = ? AND last_txn_id = ?";
+
+        long from;
+        try (PreparedStatement pstmt = conn.prepareStatement(stateSQL)) {
+            pstmt.setString(1, STATE_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Analytics roll-up state row is missing.");
+                }
+                from = rs.getLong(1);
+            }
+        }
+
+        int rows;
+        long to;
+        try (PreparedStatement pstmt = conn.prepareStatement(rangeSQL)) {
+            pstmt.setLong(1, from);
+            pstmt.setInt(2, ROLLUP_BATCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                rows = rs.getInt(1);
+                to = rs.getLong(2);
+            }
+        }
+        if (rows == 0) {
+            return new long[] { 0, from };
+        }
+
+        for (String sql : new String[] { hourlySQL, dailySQL }) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, from);
+                pstmt.setLong(2, to);
+                pstmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(advanceSQL)) {
+            pstmt.setLong(1, to);
+            pstmt.setString(2, STATE_NAME);
+            pstmt.setLong(3, from);
+            if (pstmt.executeUpdate() == 0) {
+                // Another instance moved the watermark since we read it: undo our counts
+                throw new SQLException("Analytics roll-up watermark moved concurrently.");
+            }
+        }
+        return new long[] { rows, to };
+    }
+
+    // --- Dashboard reads ---
+
+    /** Daily activity for the last {@code days} days (UTC) including today, oldest first. */
+    public static List<ActivityStat> getDailyStats(int days) {
+        String sql = "SELECT day, category, txn_count, total_amount FROM Txn_Daily_Stats " +
+                     "WHERE day >= date('now', ?) ORDER BY day, category";
+        return getStats(sql, "-" + (days - 1) + " days");
+    }
+
+    /** Hourly activity for the last {@code hours} hours (UTC) including the current one, oldest first. */
+    public static List<ActivityStat> getHourlyStats(int hours) {
+        String sql = "SELECT hour, category, txn_count, total_amount FROM Txn_Hourly_Stats " +
+                     "WHERE hour >= strftime('%Y-%m-%d %H', 'now', ?) ORDER BY hour, category";
+        return getStats(sql, "-" + (hours - 1) + " hours");
+    }
+
+    private static List<ActivityStat> getStats(String sql, String modifier) {
+        List<ActivityStat> stats = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, modifier);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                stats.add(new ActivityStat(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getDouble(4)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting activity stats: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return stats;
+    }
+
+    /** Unresolved grievances per status, from the status index. */
+    public static List<GrievanceBacklog> getGrievanceBacklog() {
+        String sql = "SELECT status, COUNT(*) AS cnt, MIN(Timestamp) AS oldest FROM Grievance " +
+                     "WHERE status != 'Resolved' GROUP BY status ORDER BY status";
+        List<GrievanceBacklog> backlog = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                backlog.add(new GrievanceBacklog(rs.getString("status"), rs.getInt("cnt"), rs.getString("oldest")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting grievance backlog: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return backlog;
+    }
+
+    /** Time of the last roll-up that moved the watermark (UTC), or null if none has run yet. */
+    public static String getLastRollupAt() {
+        String sql = "SELECT updated_at FROM Analytics_Rollup_State WHERE name = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, STATE_NAME);
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("updated_at");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting analytics roll-up state: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return null;
+    }
+}
\ No newline at end of file
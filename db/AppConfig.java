@@ -0,0 +1,264 @@
+package db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Application configuration, loaded once at startup.
+ * Each key (e.g. "db.url") is looked up in this order, first match wins:
+ *   1. JVM system property      -Dsimplebank.db.url=...
+ *   2. Environment variable     SIMPLEBANK_DB_URL=...
+ *   3. Properties file          db.url=...  (path from -Dsimplebank.config or SIMPLEBANK_CONFIG,
+ *                                            otherwise simple_bank.properties on the classpath)
+ *   4. Built-in default
+ * See simple_bank.properties.example for the supported keys.
+ */
+public class AppConfig {
+
+    private static final String DEFAULT_DATABASE_URL = "jdbc:sqlite:C:/Program Files/Apache Software Foundation/Tomcat 9.0/simple_bank.db";
+    private static final String CLASSPATH_FILE = "simple_bank.properties";
+
+    private final Properties fileProperties;
+    private final String fileSource; // Where the properties file came from, for the startup log
+
+    private AppConfig(Properties fileProperties, String fileSource) {
+        this.fileProperties = fileProperties;
+        this.fileSource = fileSource;
+    }
+
+    /**
+     * Loads and validates the configuration. Throws IllegalStateException listing every invalid setting.
+     */
+    public static AppConfig load() {
+        Properties props = new Properties();
+        String source = "none";
+        String explicitPath = firstNonBlank(System.getProperty("simplebank.config"), System.getenv("SIMPLEBANK_CONFIG"));
+        try {
+            if (explicitPath != null) {
+                Path path = Paths.get(explicitPath);
+                try (InputStream in = Files.newInputStream(path)) {
+                    props.load(in);
+                }
+                source = path.toAbsolutePath().toString();
+            } else {
+                try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(CLASSPATH_FILE)) {
+                    if (in != null) {
+                        props.load(in);
+                        source = "classpath:" + CLASSPATH_FILE;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read configuration file " + explicitPath + ": " + e.getMessage(), e);
+        }
+
+        AppConfig config = new AppConfig(props, source);
+        config.validate();
+        return config;
+    }
+
+    // --- Database settings ---
+
+    public String getDatabaseUrl() {
+        return getString("db.url", DEFAULT_DATABASE_URL);
+    }
+
+    public int getPoolSize() {
+        return getInt("db.pool.size", 8);
+    }
+
+    public int getPoolMinIdle() {
+        return getInt("db.pool.minIdle", getPoolSize());
+    }
+
+    public long getPoolAcquireTimeoutMs() {
+        return getLong("db.pool.acquireTimeoutMs", 5000L);
+    }
+
+    public boolean isPoolValidateOnBorrow() {
+        return getBoolean("db.pool.validateOnBorrow", true);
+    }
+
+    /**
+     * The selected PRAGMA profile with any db.pragma.<name> overrides applied.
+     */
+    public ConnectionProfile getConnectionProfile() {
+        ConnectionProfile profile = ConnectionProfile.named(getString("db.profile", "production"));
+        for (String pragma : profile.getPragmas().keySet()) {
+            String override = getString("db.pragma." + pragma, null);
+            if (override != null) {
+                profile = profile.withPragma(pragma, override);
+            }
+        }
+        return profile;
+    }
+
+    // --- Generic lookups ---
+
+    public String getString(String key, String defaultValue) {
+        String value = firstNonBlank(
+                System.getProperty("simplebank." + key),
+                System.getenv("SIMPLEBANK_" + key.toUpperCase().replace('.', '_')),
+                fileProperties.getProperty(key));
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuration " + key + " must be an integer, got '" + value + "'.");
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuration " + key + " must be an integer, got '" + value + "'.");
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            throw new IllegalStateException("Configuration " + key + " must be true or false, got '" + value + "'.");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * One-line summary for the startup log.
+     */
+    public String describe() {
+        return "configFile=" + fileSource + ", db.url=" + getDatabaseUrl() + ", db.pool.size=" + getPoolSize()
+                + ", db.pool.minIdle=" + getPoolMinIdle() + ", db.pool.acquireTimeoutMs=" + getPoolAcquireTimeoutMs()
+                + ", db.pool.validateOnBorrow=" + isPoolValidateOnBorrow() + ", db.profile=" + getConnectionProfile().getName();
+    }
+
+    // --- Internals ---
+
+    // Checks every supported setting up front so a typo fails deployment instead of the first request (or, for
+    // the settings read in static initializers, instead of leaving the class that reads them unusable)
+    private void validate() {
+        List<String> errors = new ArrayList<>();
+        try {
+            if (!getDatabaseUrl().startsWith("jdbc:sqlite:")) {
+                errors.add("db.url must start with jdbc:sqlite: (got '" + getDatabaseUrl() + "')");
+            }
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+        try {
+            if (getPoolSize() <= 0) {
+                errors.add("db.pool.size must be positive");
+            }
+            if (getPoolMinIdle() < 0 || getPoolMinIdle() > getPoolSize()) {
+                errors.add("db.pool.minIdle must be between 0 and db.pool.size");
+            }
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+        try {
+            if (getPoolAcquireTimeoutMs() <= 0) {
+                errors.add("db.pool.acquireTimeoutMs must be positive");
+            }
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+        try {
+            isPoolValidateOnBorrow();
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+        try {
+            getConnectionProfile();
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+
+        // Settings whose defaults live with the code that reads them: only explicitly set values are checked
+        checkInt(errors, "ledger.queueCapacity", 1);
+        checkInt(errors, "ledger.maxBatchSize", 1);
+        checkLong(errors, "ledger.submitTimeoutMs", 0);
+        checkLong(errors, "ledger.resultTimeoutMs", 1);
+        checkLong(errors, "fd.accrualIntervalMinutes", 1);
+        checkLong(errors, "fd.maturitySweepIntervalMinutes", 1);
+        checkInt(errors, "fd.sweepBatchSize", 1);
+        checkLong(errors, "analytics.rollupIntervalMinutes", 1);
+        checkInt(errors, "analytics.rollupBatchSize", 1);
+        checkInt(errors, "accountNumber.blockSize", 1);
+        checkInt(errors, "teller.batchSize", 1);
+        checkInt(errors, "customerCache.maxEntries", 0);
+        checkLong(errors, "customerCache.ttlMs", 0);
+        checkLong(errors, "customerCache.negativeTtlMs", 0);
+        checkBoolean(errors, "web.async.enabled");
+        checkLong(errors, "web.async.timeoutMs", 1);
+        checkInt(errors, "web.async.poolSize", 1);
+        checkInt(errors, "web.async.queueCapacity", 1);
+        checkInt(errors, "admission.connectorThreads", 1);
+        for (String portal : new String[] { "customer", "staff", "manager" }) {
+            checkInt(errors, "admission." + portal + ".maxConcurrent", 1);
+            checkInt(errors, "admission." + portal + ".maxQueued", 0);
+            checkLong(errors, "admission." + portal + ".maxQueueMs", 0);
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid configuration: " + String.join("; ", errors));
+        }
+    }
+
+    private void checkInt(List<String> errors, String key, int min) {
+        try {
+            if (getInt(key, min) < min) {
+                errors.add(key + " must be at least " + min);
+            }
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+    }
+
+    private void checkLong(List<String> errors, String key, long min) {
+        try {
+            if (getLong(key, min) < min) {
+                errors.add(key + " must be at least " + min);
+            }
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+    }
+
+    private void checkBoolean(List<String> errors, String key) {
+        try {
+            getBoolean(key, false);
+        } catch (RuntimeException e) {
+            errors.add(e.getMessage());
+        }
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package db;
+
+import model.BalanceDrift;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized per-account balances (Account_Balance table).
+ * Every method that inserts into Transactions must call applyDelta() on the same
+ * connection, inside the same database transaction, so the stored balance never
+ * disagrees with the ledger.
+ */
+public class BalanceDB {
+
+    // Balance of the account a ledger row belongs to (accno): credit when it received the money,
+    // debit when it sent it. Each transfer writes one row per side, so every row is counted once.
+    static final String LEDGER_BALANCE_SQL =
+            "COALESCE(SUM(CASE WHEN to_acc = accno THEN amount WHEN from_acc = accno THEN -amount ELSE 0 END), 0)";
+
+    // Anything below half a paisa/cent is floating point noise, not drift
+    private static final double DRIFT_TOLERANCE = 0.005;
+
+    /**
+     * Adds delta (negative for debits) to the stored balance of an account, creating its row if needed.
+     * Must run on the caller's connection so it commits or rolls back with the ledger insert.
+     */
+    public static void applyDelta(Connection conn, String accountNumber, double delta) throws SQLException {
+        String sql = "INSERT INTO Account_Balance (accno, balance) VALUES (?, ?) " +
+                     "ON CONFLICT(accno) DO UPDATE SET balance = balance + excluded.balance";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+            pstmt.setDouble(2, delta);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the stored balance on the caller's connection, e.g. to check funds inside a transaction.
+     */
+    public static double getBalance(Connection conn, String accountNumber) throws SQLException {
+        String sql = "SELECT balance FROM Account_Balance WHERE accno = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getDouble("balance") : 0.0;
+            }
+        }
+    }
+
+    public static double getBalance(String accountNumber) {
+        String sql = "SELECT balance FROM Account_Balance WHERE accno = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        double balance = 0.0;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, accountNumber);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                balance = rs.getDouble("balance");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading account balance: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return balance;
+    }
+
+    /**
+     * Verification job: recomputes every balance from the Transactions ledger and
+     * returns the accounts whose stored balance has drifted from it.
+     * Throws if the check could not run, so a failed verification is never mistaken for a clean one.
+     */
+    public static List<BalanceDrift> verifyBalances() throws SQLException {
+        List<BalanceDrift> drifts = new ArrayList<>();
+        String sql = "SELECT accno, stored, ledger FROM (" +
+                     "  SELECT l.accno AS accno, COALESCE(b.balance, 0) AS stored, l.ledger AS ledger " +
+                     "  FROM (SELECT accno, " + LEDGER_BALANCE_SQL + " AS ledger FROM Transactions GROUP BY accno) l " +
+                     "  LEFT JOIN Account_Balance b ON b.accno = l.accno " +
+                     "  UNION ALL " +
+                     "  SELECT b.accno, b.balance, 0 FROM Account_Balance b " +
+                     "  WHERE NOT EXISTS (SELECT 1 FROM Transactions t WHERE t.accno = b.accno)" +
+                     ") WHERE ABS(stored - ledger) > ? ORDER BY accno";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        long start = System.currentTimeMillis();
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setDouble(1, DRIFT_TOLERANCE);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                drifts.add(new BalanceDrift(
+                        rs.getString("accno"),
+                        rs.getDouble("stored"),
+                        rs.getDouble("ledger")));
+            }
+            System.out.println("Balance verification finished in " + (System.currentTimeMillis() - start)
+                    + " ms: " + drifts.size() + " account(s) drifted.");
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return drifts;
+    }
+}
\ No newline at end of file
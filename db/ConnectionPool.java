@@ -0,0 +1,316 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of SQLite connections.
+ * Connections handed out by borrow() are proxies: calling close() on them returns
+ * the underlying connection to the pool instead of closing it, so the existing
+ * DatabaseUtil.closeQuietly(conn) calls keep working unchanged.
+ * Statements created from them are proxied too, so SQL errors are reported to DbMetrics.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final ConnectionProfile profile;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final boolean validateOnBorrow;
+
+    // Most recently returned connection is handed out first (LIFO keeps page cache warm)
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, ConnectionProfile profile, int maxSize, int minIdle, long acquireTimeoutMillis,
+            boolean validateOnBorrow) throws SQLException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.url = url;
+        this.profile = profile;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validateOnBorrow = validateOnBorrow;
+
+        // Pre-warm so the first requests don't pay for connection setup
+        int warm = Math.min(Math.max(minIdle, 0), maxSize);
+        for (int i = 0; i < warm; i++) {
+            Connection conn = tryCreate();
+            if (conn != null) {
+                idle.offerLast(conn);
+            }
+        }
+        System.out.println("Connection pool started: maxSize=" + maxSize + ", preWarmed=" + idle.size()
+                + ", acquireTimeoutMs=" + acquireTimeoutMillis + ", validateOnBorrow=" + validateOnBorrow);
+    }
+
+    public ConnectionProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Borrows a connection, waiting up to the acquire timeout if all connections are in use.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down.");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+        while (true) {
+            Connection physical = idle.pollFirst();
+            if (physical == null) {
+                physical = tryCreate();
+            }
+            if (physical == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    waiters.incrementAndGet();
+                    try {
+                        physical = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    } finally {
+                        waiters.decrementAndGet();
+                    }
+                }
+            }
+            if (physical == null) {
+                timeoutCount.incrementAndGet();
+                DbMetrics.markError();
+                throw new SQLException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ").");
+            }
+
+            if (validateOnBorrow && !isUsable(physical)) {
+                validationFailures.incrementAndGet();
+                discard(physical);
+                continue; // Try again with the remaining time budget
+            }
+
+            long waited = System.nanoTime() - start;
+            borrowCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            activeConnections.incrementAndGet();
+            return wrap(physical);
+        }
+    }
+
+    /**
+     * Closes all idle connections and rejects further borrows.
+     * Connections still in use are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            discard(conn);
+        }
+        System.out.println("Connection pool shut down.");
+    }
+
+    // --- Metrics ---
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return activeConnections.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public int getWaiterCount() {
+        return waiters.get();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailures.get();
+    }
+
+    // --- Internals ---
+
+    // Opens a new physical connection if the pool is below its size limit, otherwise returns null
+    private Connection tryCreate() throws SQLException {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        Connection conn = null;
+        try {
+            conn = DriverManager.getConnection(url);
+            profile.apply(conn); // PRAGMAs are per connection, so every new one gets the full profile
+            return conn;
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            DatabaseUtil.closeQuietly(conn);
+            throw e;
+        }
+    }
+
+    private boolean isUsable(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection physical) {
+        totalConnections.decrementAndGet();
+        DatabaseUtil.closeQuietly(physical);
+    }
+
+    // Called by the proxy when the borrower closes its connection
+    private void release(Connection physical) {
+        activeConnections.decrementAndGet();
+        try {
+            // Never hand out a connection with a half-finished transaction
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warn: Discarding pooled connection that could not be reset: " + e.getMessage());
+            discard(physical);
+            return;
+        }
+        if (closed) {
+            discard(physical);
+        } else {
+            idle.offerFirst(physical);
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(physical));
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned = false;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!returned) {
+                    returned = true;
+                    release(physical);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + physical + (returned ? ", returned" : "") + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            Object result = invokeAndMarkErrors(physical, method, args);
+            if (result instanceof Statement) {
+                return wrapStatement((Statement) result, method.getReturnType(), (Connection) proxy);
+            }
+            return result;
+        }
+    }
+
+    // Statement, PreparedStatement or CallableStatement, matching what the connection method returns
+    private static Object wrapStatement(Statement statement, Class<?> type, Connection connection) {
+        return Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if ("getConnection".equals(name)) {
+                        return connection;
+                    }
+                    if ("equals".equals(name)) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(name)) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return invokeAndMarkErrors(statement, method, args);
+                });
+    }
+
+    private static Object invokeAndMarkErrors(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                DbMetrics.markError();
+            }
+            throw e.getCause();
+        }
+    }
+}
\ No newline at end of file
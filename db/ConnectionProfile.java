@@ -0,0 +1,115 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named set of SQLite PRAGMA settings applied to every pooled connection.
+ * Profiles: "production" (default), "development" and "benchmark". Individual pragmas can be
+ * overridden on top of the selected profile.
+ */
+public class ConnectionProfile {
+
+    // Only these pragmas may be set through a profile; values are checked before being put into SQL
+    private static final Set<String> SUPPORTED_PRAGMAS = Set.of(
+            "busy_timeout", "journal_mode", "synchronous", "cache_size", "mmap_size", "temp_store");
+
+    private final String name;
+    private final Map<String, String> pragmas;
+
+    private ConnectionProfile(String name, Map<String, String> pragmas) {
+        this.name = name;
+        this.pragmas = pragmas;
+    }
+
+    public static ConnectionProfile named(String name) {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        // busy_timeout goes first so the other pragmas (journal_mode in particular) wait out a busy database
+        switch (name) {
+            case "production":
+                pragmas.put("busy_timeout", "5000");
+                pragmas.put("journal_mode", "WAL");    // Readers no longer block behind the writer
+                pragmas.put("synchronous", "FULL");    // Every commit is durable across power loss
+                pragmas.put("cache_size", "-20000");   // ~20 MB page cache per connection
+                pragmas.put("mmap_size", "268435456"); // 256 MB memory-mapped reads
+                pragmas.put("temp_store", "MEMORY");
+                break;
+            case "development":
+                pragmas.put("busy_timeout", "5000");
+                pragmas.put("journal_mode", "WAL");
+                pragmas.put("synchronous", "NORMAL");  // In WAL mode only the last commits can be lost on power loss
+                pragmas.put("cache_size", "-8000");
+                pragmas.put("mmap_size", "0");
+                pragmas.put("temp_store", "MEMORY");
+                break;
+            case "benchmark":
+                pragmas.put("busy_timeout", "10000");
+                pragmas.put("journal_mode", "WAL");
+                pragmas.put("synchronous", "OFF");     // Scratch databases only: no fsync at all
+                pragmas.put("cache_size", "-65536");
+                pragmas.put("mmap_size", "1073741824");
+                pragmas.put("temp_store", "MEMORY");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown connection profile '" + name
+                        + "' (expected production, development or benchmark).");
+        }
+        return new ConnectionProfile(name, pragmas);
+    }
+
+    /**
+     * Returns a copy of this profile with one pragma replaced.
+     */
+    public ConnectionProfile withPragma(String pragma, String value) {
+        if (!SUPPORTED_PRAGMAS.contains(pragma)) {
+            throw new IllegalArgumentException("Unsupported pragma '" + pragma + "'.");
+        }
+        if (value == null || !value.matches("-?[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for pragma " + pragma + ".");
+        }
+        Map<String, String> copy = new LinkedHashMap<>(pragmas);
+        copy.put(pragma, value);
+        return new ConnectionProfile(name, copy);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getPragmas() {
+        return Collections.unmodifiableMap(pragmas);
+    }
+
+    /**
+     * Applies every pragma of the profile to a freshly opened connection.
+     */
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+                stmt.execute("PRAGMA " + pragma.getKey() + " = " + pragma.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads back the settings SQLite actually uses on this connection (e.g. journal_mode
+     * stays "memory" for in-memory databases even when WAL is requested).
+     */
+    public String describeEffective(Connection conn) throws SQLException {
+        StringBuilder sb = new StringBuilder("profile=").append(name);
+        try (Statement stmt = conn.createStatement()) {
+            for (String pragma : pragmas.keySet()) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+                    sb.append(", ").append(pragma).append('=').append(rs.next() ? rs.getString(1) : "?");
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package db;
+
+import model.Customer;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of Customer rows by account number, in front of CustomerDB.getCustomerByAccountNumber.
+ * Bounded LRU (customerCache.maxEntries). Unknown account numbers are cached too, for a short TTL
+ * (customerCache.negativeTtlMs), so mistyped accounts in transfer forms do not hit the database every time.
+ * Code that changes a Customer row calls invalidate() after its write; found entries also expire after
+ * customerCache.ttlMs as a backstop for changes made outside this process.
+ */
+public class CustomerCache {
+
+    /** Database lookup behind the cache. Throws rather than returning empty on errors, so failures are never cached. */
+    interface Loader {
+        Optional<Customer> load(String accountNumber) throws SQLException;
+    }
+
+    private static final int MAX_ENTRIES = DatabaseUtil.getConfig().getInt("customerCache.maxEntries", 10000);
+    private static final long TTL_MS = DatabaseUtil.getConfig().getLong("customerCache.ttlMs", 300000L);
+    private static final long NEGATIVE_TTL_MS = DatabaseUtil.getConfig().getLong("customerCache.negativeTtlMs", 30000L);
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                EVICTIONS.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Bumped by every invalidation; a load that started before one must not be cached
+    private static long generation = 0;
+
+    // Metrics
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong NEGATIVE_HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+    private static final AtomicLong INVALIDATIONS = new AtomicLong();
+
+    /**
+     * Cached customer for the account number, or the loader's result (which is then cached).
+     * The loader runs outside the cache lock, so a slow query never blocks other lookups.
+     */
+    static Optional<Customer> get(String accountNumber, Loader loader) throws SQLException {
+        if (accountNumber == null) {
+            return Optional.empty();
+        }
+        long loadGeneration;
+        synchronized (CustomerCache.class) {
+            Entry entry = ENTRIES.get(accountNumber);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    (entry.customer == null ? NEGATIVE_HITS : HITS).incrementAndGet();
+                    return Optional.ofNullable(entry.customer);
+                }
+                ENTRIES.remove(accountNumber);
+            }
+            loadGeneration = generation;
+        }
+
+        MISSES.incrementAndGet();
+        Optional<Customer> loaded = loader.load(accountNumber);
+        synchronized (CustomerCache.class) {
+            if (generation == loadGeneration) {
+                long ttl = loaded.isPresent() ? TTL_MS : NEGATIVE_TTL_MS;
+                ENTRIES.put(accountNumber, new Entry(loaded.orElse(null), System.currentTimeMillis() + ttl));
+            }
+        }
+        return loaded;
+    }
+
+    /** Drops the account's entry. Call after the write that changed (or created) the Customer row. */
+    public static synchronized void invalidate(String accountNumber) {
+        ENTRIES.remove(accountNumber);
+        generation++;
+        INVALIDATIONS.incrementAndGet();
+    }
+
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        generation++;
+        INVALIDATIONS.incrementAndGet();
+    }
+
+    // --- Metrics ---
+
+    public static synchronized int getSize() {
+        return ENTRIES.size();
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getNegativeHitCount() {
+        return NEGATIVE_HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    public static long getInvalidationCount() {
+        return INVALIDATIONS.get();
+    }
+
+    public static double getHitRatio() {
+        long hits = HITS.get() + NEGATIVE_HITS.get();
+        long total = hits + MISSES.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    // customer is null for a cached "no such account"
+    private static class Entry {
+        final Customer customer;
+        final long expiresAt;
+
+        Entry(Customer customer, long expiresAt) {
+            this.customer = customer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
\ No newline at end of file
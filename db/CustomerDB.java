@@ -1,25 +1,33 @@
 package db;
 
 import model.Customer;
+import model.FD;
 import model.Grievance;
 import model.Loan;
 import model.Transaction;
+import model.TransactionPage;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.math.BigDecimal; // For precise financial calculations
-import java.math.RoundingMode; // For precise financial calculations
 
 
 public class CustomerDB {
 
+    // Rows read per chunk when streaming statements; the connection goes back to the pool between chunks
+    private static final int STATEMENT_CHUNK_SIZE = 500;
+
     // --- Customer Authentication & Details ---
 
     public static Optional<Customer> validateCustomerLogin(String accountNumber, String passwordHash) {
+        return DbMetrics.time("CustomerDB.validateCustomerLogin", () -> doValidateCustomerLogin(accountNumber, passwordHash));
+    }
+
+    private static Optional<Customer> doValidateCustomerLogin(String accountNumber, String passwordHash) {
         String sql = "SELECT id, name, mobile, email, accountno, password FROM Customer WHERE accountno = ? AND password = ? LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -52,7 +60,24 @@ public class CustomerDB {
         return Optional.empty();
     }
 
-     public static Optional<Customer> getCustomerByAccountNumber(String accountNumber) {
+    /**
+     * Customer with the account number, served from CustomerCache when possible.
+     * Empty if there is no such account (or the lookup failed).
+     */
+    public static Optional<Customer> getCustomerByAccountNumber(String accountNumber) {
+        return DbMetrics.time("CustomerDB.getCustomerByAccountNumber", () -> doGetCustomerByAccountNumber(accountNumber));
+    }
+
+    private static Optional<Customer> doGetCustomerByAccountNumber(String accountNumber) {
+        try {
+            return CustomerCache.get(accountNumber, CustomerDB::loadCustomerByAccountNumber);
+        } catch (SQLException e) {
+            System.err.println("Error getting customer by account number: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Customer> loadCustomerByAccountNumber(String accountNumber) throws SQLException {
         String sql = "SELECT id, name, mobile, email, accountno, password FROM Customer WHERE accountno = ? LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -74,8 +99,6 @@ public class CustomerDB {
                         rs.getString("password") // Stored hash
                 ));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting customer by account number: " + e.getMessage());
         } finally {
             DatabaseUtil.closeQuietly(rs);
             DatabaseUtil.closeQuietly(pstmt);
@@ -86,48 +109,21 @@ public class CustomerDB {
 
 
     public static double getCustomerBalance(String accountNumber) {
-        // Balance isn't stored directly in Customer table per schema.
-        // It must be calculated from Transactions or assumed to be managed elsewhere.
-        // For simplicity, let's assume a function to calculate it, or return 0.
-        // A more realistic approach involves summing transactions.
-        // Let's simulate by summing transaction amounts for this account.
-
-        String sql = "SELECT " +
-                     "  COALESCE(SUM(CASE WHEN to_acc = ? THEN amount ELSE 0 END), 0) - " +
-                     "  COALESCE(SUM(CASE WHEN from_acc = ? THEN amount ELSE 0 END), 0) as balance " +
-                     "FROM Transactions " +
-                     "WHERE to_acc = ? OR from_acc = ?";
-
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        double balance = 0.0;
-
-        try {
-            conn = DatabaseUtil.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, accountNumber);
-            pstmt.setString(2, accountNumber);
-            pstmt.setString(3, accountNumber);
-            pstmt.setString(4, accountNumber);
-            rs = pstmt.executeQuery();
+        return DbMetrics.time("CustomerDB.getCustomerBalance", () -> doGetCustomerBalance(accountNumber));
+    }
 
-            if (rs.next()) {
-                balance = rs.getDouble("balance");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error calculating customer balance: " + e.getMessage());
-            // Return 0 or throw exception depending on desired handling
-        } finally {
-            DatabaseUtil.closeQuietly(rs);
-            DatabaseUtil.closeQuietly(pstmt);
-            DatabaseUtil.closeQuietly(conn);
-        }
-        return balance;
+    private static double doGetCustomerBalance(String accountNumber) {
+        // Balance is materialized in Account_Balance and kept in step with every
+        // Transactions insert (see BalanceDB), so this is a primary-key lookup.
+        return BalanceDB.getBalance(accountNumber);
     }
 
 
     public static boolean updateCustomerPassword(String accountNumber, String newPasswordHash) {
+        return DbMetrics.time("CustomerDB.updateCustomerPassword", () -> doUpdateCustomerPassword(accountNumber, newPasswordHash));
+    }
+
+    private static boolean doUpdateCustomerPassword(String accountNumber, String newPasswordHash) {
         String sql = "UPDATE Customer SET password = ? WHERE accountno = ?";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -146,12 +142,17 @@ public class CustomerDB {
             DatabaseUtil.closeQuietly(pstmt);
             DatabaseUtil.closeQuietly(conn);
         }
+        CustomerCache.invalidate(accountNumber);
         return success;
     }
 
     // --- Transactions ---
 
     public static List<Transaction> getTransactionsForAccount(String accountNumber) {
+        return DbMetrics.time("CustomerDB.getTransactionsForAccount", () -> doGetTransactionsForAccount(accountNumber));
+    }
+
+    private static List<Transaction> doGetTransactionsForAccount(String accountNumber) {
         List<Transaction> transactions = new ArrayList<>();
         // Get transactions where the account is either sender or receiver
         // Ordering by ID descending to get newest first
@@ -193,67 +194,198 @@ public class CustomerDB {
     }
 
     /**
-     * Performs a transfer between two accounts. Assumes sufficient funds check happens before calling.
-     * Adds two transaction records (one debit, one credit).
+     * Returns one page of an account's history, newest first, using keyset pagination:
+     * rows with id below beforeId (or the newest rows when beforeId is null), at most pageSize of them.
+     * Cost depends on the page size only, not on how long the account's history is.
+     */
+    public static TransactionPage getTransactionsPage(String accountNumber, Integer beforeId, int pageSize) {
+        return DbMetrics.time("CustomerDB.getTransactionsPage", () -> doGetTransactionsPage(accountNumber, beforeId, pageSize));
+    }
+
+    private static TransactionPage doGetTransactionsPage(String accountNumber, Integer beforeId, int pageSize) {
+        List<Transaction> transactions = new ArrayList<>();
+        Integer nextCursor = null;
+        // Every ledger row belongs to one account (accno), including each side of a transfer,
+        // so filtering on accno alone lists each movement once
+        String sql = "SELECT id, accno, amount, to_acc, from_acc, type, date(Timestamp) as date, time(Timestamp) as time FROM Transactions WHERE accno = ? AND id < ? ORDER BY id DESC LIMIT ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, accountNumber);
+            pstmt.setInt(2, beforeId != null ? beforeId : Integer.MAX_VALUE);
+            pstmt.setInt(3, pageSize + 1); // One extra row tells us whether an older page exists
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                if (transactions.size() == pageSize) {
+                    nextCursor = transactions.get(pageSize - 1).getId();
+                    break;
+                }
+                String dateTime = rs.getString("date") + " " + rs.getString("time");
+                transactions.add(new Transaction(
+                        rs.getInt("id"),
+                        accountNumber,
+                        rs.getDouble("amount"),
+                        rs.getString("to_acc"),
+                        rs.getString("from_acc"),
+                        rs.getString("type"),
+                        dateTime
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting transaction page for account: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    /**
+     * Performs a transfer between two accounts. The funds check and both transaction records
+     * (one debit, one credit) are done atomically by TransferEngine under per-account locks.
      */
     public static boolean performTransfer(String fromAccount, String toAccount, double amount) {
-       String sqlInsert = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
-       Connection conn = null;
-       PreparedStatement pstmtDebit = null;
-       PreparedStatement pstmtCredit = null;
-       boolean success = false;
-
-       try {
-           conn = DatabaseUtil.getConnection();
-           conn.setAutoCommit(false); // Start transaction
-
-           // 1. Record Debit from sender
-           pstmtDebit = conn.prepareStatement(sqlInsert);
-           pstmtDebit.setString(1, fromAccount); // Primary account for this record
-           pstmtDebit.setDouble(2, amount);
-           pstmtDebit.setString(3, toAccount);
-           pstmtDebit.setString(4, fromAccount);
-           pstmtDebit.setString(5, "Transfer Out"); // Or just "Transfer"
-           pstmtDebit.executeUpdate();
-
-           // 2. Record Credit to receiver
-           pstmtCredit = conn.prepareStatement(sqlInsert);
-           pstmtCredit.setString(1, toAccount); // Primary account for this record
-           pstmtCredit.setDouble(2, amount);
-           pstmtCredit.setString(3, toAccount);
-           pstmtCredit.setString(4, fromAccount);
-           pstmtCredit.setString(5, "Transfer In"); // Or just "Transfer"
-           pstmtCredit.executeUpdate();
-
-           conn.commit(); // Commit transaction
-           success = true;
-
-       } catch (SQLException e) {
-           System.err.println("Error performing transfer: " + e.getMessage());
-           if (conn != null) {
-               try {
-                   conn.rollback();
-                   System.err.println("Transfer transaction rolled back.");
-               } catch (SQLException ex) {
-                   System.err.println("Error rolling back transfer transaction: " + ex.getMessage());
-               }
-           }
-       } finally {
-           DatabaseUtil.closeQuietly(pstmtDebit);
-            DatabaseUtil.closeQuietly(pstmtCredit);
-           if (conn != null) {
-               try {
-                   conn.setAutoCommit(true); // Restore auto-commit mode
-               } catch (SQLException e) { /* ignore */ }
-               DatabaseUtil.closeQuietly(conn);
-           }
-       }
-       return success;
-   }
+        return transfer(fromAccount, toAccount, amount) == TransferEngine.Result.SUCCESS;
+    }
+
+    /**
+     * Same as performTransfer, but returns why a transfer did not go through. Both are timed as
+     * CustomerDB.performTransfer.
+     */
+    public static TransferEngine.Result transfer(String fromAccount, String toAccount, double amount) {
+        return DbMetrics.time("CustomerDB.performTransfer", () -> TransferEngine.transfer(fromAccount, toAccount, amount));
+    }
+
+    // --- Statements ---
+
+    /** Receives a statement as it is read: the opening balance first, then each row in ledger order. */
+    public interface StatementHandler {
+        void opening(double openingBalance) throws IOException;
+
+        void row(Transaction transaction) throws IOException;
+    }
+
+    /**
+     * Streams an account's transactions with from <= Timestamp < toExclusive (YYYY-MM-DD) to the handler.
+     * The opening balance and the account's newest transaction id are read together first; rows are then
+     * read in id order in chunks of STATEMENT_CHUNK_SIZE up to that id, and each chunk is handed over only
+     * after its connection is back in the pool. A slow download therefore holds neither a connection nor
+     * a read transaction, and rows posted meanwhile are left out, so the totals still add up.
+     * Returns the number of rows streamed.
+     */
+    public static int streamStatement(String accountNumber, String from, String toExclusive, StatementHandler handler)
+            throws SQLException, IOException {
+        // Two checked exceptions, so timed by hand rather than through DbMetrics.time
+        DbMetrics.Timer timer = DbMetrics.start("CustomerDB.streamStatement");
+        try {
+            return doStreamStatement(accountNumber, from, toExclusive, handler);
+        } catch (SQLException | IOException | RuntimeException e) {
+            timer.error();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static int doStreamStatement(String accountNumber, String from, String toExclusive, StatementHandler handler)
+            throws SQLException, IOException {
+        String openingSQL = "SELECT " + BalanceDB.LEDGER_BALANCE_SQL + " AS opening FROM Transactions WHERE accno = ? AND Timestamp < ?";
+        String lastIdSQL = "SELECT COALESCE(MAX(id), 0) AS last_id FROM Transactions WHERE accno = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        double opening;
+        int lastId;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // One snapshot for both queries
+
+            pstmt = conn.prepareStatement(openingSQL);
+            pstmt.setString(1, accountNumber);
+            pstmt.setString(2, from);
+            rs = pstmt.executeQuery();
+            opening = rs.next() ? rs.getDouble("opening") : 0.0;
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+
+            pstmt = conn.prepareStatement(lastIdSQL);
+            pstmt.setString(1, accountNumber);
+            rs = pstmt.executeQuery();
+            lastId = rs.next() ? rs.getInt("last_id") : 0;
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn); // Pool ends the read transaction
+        }
+
+        handler.opening(opening);
+        int rows = 0;
+        int afterId = 0;
+        while (true) {
+            List<Transaction> chunk = readStatementChunk(accountNumber, from, toExclusive, afterId, lastId);
+            for (Transaction transaction : chunk) {
+                handler.row(transaction);
+            }
+            rows += chunk.size();
+            if (chunk.size() < STATEMENT_CHUNK_SIZE) {
+                return rows;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    // Next chunk of statement rows with afterId < id <= lastId, on a connection of its own
+    private static List<Transaction> readStatementChunk(String accountNumber, String from, String toExclusive,
+            int afterId, int lastId) throws SQLException {
+        String sql = "SELECT id, amount, to_acc, from_acc, type, Timestamp FROM Transactions " +
+                     "WHERE accno = ? AND id > ? AND id <= ? AND Timestamp >= ? AND Timestamp < ? ORDER BY id LIMIT ?";
+        List<Transaction> chunk = new ArrayList<>(STATEMENT_CHUNK_SIZE);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, accountNumber);
+            pstmt.setInt(2, afterId);
+            pstmt.setInt(3, lastId);
+            pstmt.setString(4, from);
+            pstmt.setString(5, toExclusive);
+            pstmt.setInt(6, STATEMENT_CHUNK_SIZE);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                chunk.add(new Transaction(
+                        rs.getInt("id"),
+                        accountNumber,
+                        rs.getDouble("amount"),
+                        rs.getString("to_acc"),
+                        rs.getString("from_acc"),
+                        rs.getString("type"),
+                        rs.getString("Timestamp")));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return chunk;
+    }
 
     // --- Loans ---
 
     public static List<Loan> getActiveLoansForAccount(String accountNumber) {
+        return DbMetrics.time("CustomerDB.getActiveLoansForAccount", () -> doGetActiveLoansForAccount(accountNumber));
+    }
+
+    private static List<Loan> doGetActiveLoansForAccount(String accountNumber) {
         List<Loan> loans = new ArrayList<>();
         // Assuming 'active' means not fully repaid. This might require checking related 'Loan Repaid' transactions.
         // Simplified: Get all loans for the account. Repayment status handled in servlet/JSP via calculation.
@@ -290,6 +422,10 @@ public class CustomerDB {
 
 
     public static Optional<Loan> getLoanById(int loanId) {
+        return DbMetrics.time("CustomerDB.getLoanById", () -> doGetLoanById(loanId));
+    }
+
+    private static Optional<Loan> doGetLoanById(int loanId) {
         String sql = "SELECT id, amount, accno, int_rate, date, duration FROM Loan WHERE id = ? LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -323,127 +459,233 @@ public class CustomerDB {
 
 
     /**
-     * Records a loan repayment transaction. Assumes sufficient funds check happens before calling.
+     * Records a loan repayment transaction. The funds check is repeated inside the database
+     * transaction while holding the account's TransferEngine lock, so concurrent debits cannot overdraw.
      * Returns true on success.
      */
     public static boolean repayLoan(String accountNumber, int loanId, double repayAmount) {
+        return DbMetrics.time("CustomerDB.repayLoan", () -> doRepayLoan(accountNumber, loanId, repayAmount));
+    }
+
+    private static boolean doRepayLoan(String accountNumber, int loanId, double repayAmount) {
+        try {
+            boolean success = TransferEngine.withAccountLock(accountNumber, () -> recordLoanRepayment(accountNumber, loanId, repayAmount));
+            if (success) {
+                LoanValuator.invalidate(loanId); // Cached payoff no longer reflects the loan
+            }
+            return success;
+        } catch (SQLException e) {
+            System.err.println("Error recording loan repayment: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean recordLoanRepayment(String accountNumber, int loanId, double repayAmount) throws SQLException {
         String sqlInsert = "INSERT INTO Transactions (accno, amount, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
         // Note: `to_acc` is NULL for loan repayment (money leaves bank system concept)
         // We also need to potentially mark the Loan as 'repaid' or delete it if fully paid.
         // For simplicity, we only add the transaction record. Full repayment logic is complex.
 
+        return LedgerWriter.submit(conn -> {
+            if (BalanceDB.getBalance(conn, accountNumber) < repayAmount) {
+                System.err.println("Cannot repay loan ID " + loanId + ": Insufficient balance in account " + accountNumber);
+                return false;
+            }
+
+            // Insert transaction record
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsert)) {
+                pstmt.setString(1, accountNumber);
+                pstmt.setDouble(2, repayAmount);
+                pstmt.setString(3, accountNumber); // Money comes from the customer's account
+                pstmt.setString(4, "Loan Repaid (ID: " + loanId + ")"); // Type indicates repayment and loan ID
+                pstmt.executeUpdate();
+            }
+            BalanceDB.applyDelta(conn, accountNumber, -repayAmount);
+
+            // Simplification: We are NOT updating the Loan table status here.
+            // A real system would check if repayAmount covers the outstanding balance
+            // and update the Loan status or delete the Loan record if fully paid.
+            return true;
+        });
+    }
+
+     /**
+      * Calculates the amount needed to repay a loan today.
+      * Delegates to LoanValuator, which caches the result per loan for the current day.
+      */
+     public static BigDecimal calculateLoanRepayAmount(Loan loan) {
+         return DbMetrics.time("CustomerDB.calculateLoanRepayAmount", () -> doCalculateLoanRepayAmount(loan));
+     }
+
+     private static BigDecimal doCalculateLoanRepayAmount(Loan loan) {
+         return LoanValuator.getPayoffAmount(loan);
+     }
+
+
+    // --- Fixed Deposits ---
+
+    /**
+     * Records an FD request for manager approval. Funds are only debited when the manager approves it.
+     */
+    public static boolean createFDRequest(String accountNumber, double amount, int durationYears) {
+        return DbMetrics.time("CustomerDB.createFDRequest", () -> doCreateFDRequest(accountNumber, amount, durationYears));
+    }
+
+    private static boolean doCreateFDRequest(String accountNumber, double amount, int durationYears) {
+        String sql = "INSERT INTO FD (accno, created_at, amount, duration_years, status) VALUES (?, CURRENT_TIMESTAMP, ?, ?, 'Pending')";
+
+        if (amount <= 0 || durationYears <= 0) {
+            System.err.println("Invalid FD parameters provided.");
+            return false;
+        }
+        // Early check only; approval checks the balance again inside its transaction
+        if (BalanceDB.getBalance(accountNumber) < amount) {
+            System.err.println("Cannot request FD: Insufficient balance in account " + accountNumber);
+            return false;
+        }
+
         Connection conn = null;
         PreparedStatement pstmt = null;
         boolean success = false;
 
         try {
             conn = DatabaseUtil.getConnection();
-            conn.setAutoCommit(false); // Start transaction
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, accountNumber);
+            pstmt.setDouble(2, amount);
+            pstmt.setInt(3, durationYears);
+            success = pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error creating FD request: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return success;
+    }
 
-            // Insert transaction record
-            pstmt = conn.prepareStatement(sqlInsert);
+    public static List<FD> getFDsForAccount(String accountNumber) {
+        return DbMetrics.time("CustomerDB.getFDsForAccount", () -> doGetFDsForAccount(accountNumber));
+    }
+
+    private static List<FD> doGetFDsForAccount(String accountNumber) {
+        List<FD> fds = new ArrayList<>();
+        String sql = "SELECT " + FDEngine.FD_COLUMNS + " FROM FD WHERE accno = ? ORDER BY id DESC";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
             pstmt.setString(1, accountNumber);
-            pstmt.setDouble(2, repayAmount);
-            pstmt.setString(3, accountNumber); // Money comes from the customer's account
-            pstmt.setString(4, "Loan Repaid (ID: " + loanId + ")"); // Type indicates repayment and loan ID
-            pstmt.executeUpdate();
+            rs = pstmt.executeQuery();
 
-            // Simplification: We are NOT updating the Loan table status here.
-            // A real system would check if repayAmount covers the outstanding balance
-            // and update the Loan status or delete the Loan record if fully paid.
+            while (rs.next()) {
+                fds.add(FDEngine.toFD(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting FDs for account: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return fds;
+    }
+
+    public static Optional<FD> getFDById(int fdId) {
+        return DbMetrics.time("CustomerDB.getFDById", () -> doGetFDById(fdId));
+    }
+
+    private static Optional<FD> doGetFDById(int fdId) {
+        String sql = "SELECT " + FDEngine.FD_COLUMNS + " FROM FD WHERE id = ? LIMIT 1";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
 
-            conn.commit();
-            success = true;
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, fdId);
+            rs = pstmt.executeQuery();
 
+            if (rs.next()) {
+                return Optional.of(FDEngine.toFD(rs));
+            }
         } catch (SQLException e) {
-            System.err.println("Error recording loan repayment: " + e.getMessage());
-             if (conn != null) {
-               try {
-                   conn.rollback();
-                   System.err.println("Loan repayment transaction rolled back.");
-               } catch (SQLException ex) {
-                   System.err.println("Error rolling back loan repayment transaction: " + ex.getMessage());
-               }
-           }
+            System.err.println("Error getting FD by ID: " + e.getMessage());
         } finally {
+            DatabaseUtil.closeQuietly(rs);
             DatabaseUtil.closeQuietly(pstmt);
-             if (conn != null) {
-               try {
-                   conn.setAutoCommit(true); // Restore auto-commit mode
-               } catch (SQLException e) { /* ignore */ }
-               DatabaseUtil.closeQuietly(conn);
-           }
+            DatabaseUtil.closeQuietly(conn);
         }
-        return success;
+        return Optional.empty();
     }
 
-     /**
-      * Calculates the amount needed to repay a loan based on the provided formula.
-      * Uses BigDecimal for precision.
-      */
-     public static BigDecimal calculateLoanRepayAmount(Loan loan) {
-         LocalDate creationDate = LocalDate.parse(loan.getDateCreated()); // Assumes YYYY-MM-DD format
-         LocalDate today = LocalDate.now();
-
-         // Use BigDecimal for principal and rates
-         BigDecimal principal = BigDecimal.valueOf(loan.getAmount());
-         BigDecimal normalAnnualRatePercent = BigDecimal.valueOf(loan.getInterestRate()); // e.g., 5.0 for 5%
-
-         long totalDaysPassed = ChronoUnit.DAYS.between(creationDate, today);
-         // Convert total days passed to years (can be fractional) for comparison and calculation
-         // Using 365.25 days per year average for BigDecimal calculation
-         BigDecimal daysInYear = new BigDecimal("365.25");
-         BigDecimal totalYearsPassed = new BigDecimal(totalDaysPassed).divide(daysInYear, 10, RoundingMode.HALF_UP); // 10 decimal places for intermediate calc
-
-         BigDecimal loanDurationYears = BigDecimal.valueOf(loan.getDurationYears());
-
-         BigDecimal effectiveAnnualRatePercent;
-
-         if (totalYearsPassed.compareTo(loanDurationYears) <= 0) {
-             // Within normal duration
-             effectiveAnnualRatePercent = normalAnnualRatePercent;
-         } else {
-             // Overdue - calculate penalty
-             BigDecimal extraTimeYears = totalYearsPassed.subtract(loanDurationYears);
-             // Calculate number of full half-years passed in extra time
-             // extraTimeYears / 0.5 = extraTimeYears * 2
-             BigDecimal halfYearsPassedDecimal = extraTimeYears.multiply(new BigDecimal("2"));
-             // Floor this value to get number of full half-year periods for penalty
-             long halfYearsPassed = halfYearsPassedDecimal.setScale(0, RoundingMode.FLOOR).longValue();
-
-             // Penalty is 1% per full half-year overdue
-             BigDecimal penaltyPercent = new BigDecimal(halfYearsPassed).multiply(BigDecimal.ONE); // 1% is 1.0
-
-             effectiveAnnualRatePercent = normalAnnualRatePercent.add(penaltyPercent);
-             System.out.println("Loan ID " + loan.getId() + " overdue. Extra Half-Years: " + halfYearsPassed + ", Penalty: " + penaltyPercent + "%, Effective Rate: " + effectiveAnnualRatePercent + "%");
-         }
-
-         // Calculate quarterly compounding
-         // Ensure rate is not negative if penalties somehow exceed initial rate (unlikely)
-         if (effectiveAnnualRatePercent.compareTo(BigDecimal.ZERO) < 0) {
-             effectiveAnnualRatePercent = BigDecimal.ZERO;
-         }
-
-         BigDecimal annualRateDecimal = effectiveAnnualRatePercent.divide(new BigDecimal("100"), 10, RoundingMode.HALF_UP);
-         BigDecimal quarterlyRateDecimal = annualRateDecimal.divide(new BigDecimal("4"), 10, RoundingMode.HALF_UP);
-
-         // Number of quarters = total years passed * 4
-         // Use double for Math.pow, accepting potential minor precision loss at exponentiation stage, or use a loop for BigDecimal power.
-         // Using Math.pow for simplicity as requested.
-         double numberOfQuarters = totalYearsPassed.multiply(new BigDecimal("4")).doubleValue();
-
-         // final_amount = principal * (1 + quarterly_rate) ^ quarters
-         double base = BigDecimal.ONE.add(quarterlyRateDecimal).doubleValue();
-         double finalAmountDouble = principal.doubleValue() * Math.pow(base, numberOfQuarters);
-
-         // Return as BigDecimal rounded to 2 decimal places (currency)
-         return BigDecimal.valueOf(finalAmountDouble).setScale(2, RoundingMode.HALF_UP);
-     }
+    /**
+     * Closes an Active FD owned by the account and credits the payout (principal plus interest,
+     * with the premature-closure penalty if before maturity). Returns the amount credited,
+     * or empty if the FD was not found, not Active, or the write failed.
+     */
+    public static Optional<BigDecimal> closeFD(String accountNumber, int fdId) {
+        return DbMetrics.time("CustomerDB.closeFD", () -> doCloseFD(accountNumber, fdId));
+    }
+
+    private static Optional<BigDecimal> doCloseFD(String accountNumber, int fdId) {
+        String fetchSQL = "SELECT " + FDEngine.FD_COLUMNS + " FROM FD WHERE id = ? AND accno = ? AND status = 'Active'";
+        String updateSQL = "UPDATE FD SET status = 'Closed', accrued_interest = ?, accrued_through = ?, closed_at = CURRENT_TIMESTAMP " +
+                           "WHERE id = ? AND status = 'Active'";
+        String insertSQL = "INSERT INTO Transactions (accno, amount, to_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        try {
+            BigDecimal payout = TransferEngine.withAccountLock(accountNumber, () -> LedgerWriter.submit(conn -> {
+                FD fd;
+                try (PreparedStatement pstmt = conn.prepareStatement(fetchSQL)) {
+                    pstmt.setInt(1, fdId);
+                    pstmt.setString(2, accountNumber);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            System.err.println("Active FD with ID " + fdId + " not found for account " + accountNumber);
+                            return null;
+                        }
+                        fd = FDEngine.toFD(rs);
+                    }
+                }
+
+                LocalDate today = LocalDate.now();
+                BigDecimal amount = FDEngine.getPayoutAmount(fd, today);
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSQL)) {
+                    pstmt.setDouble(1, amount.subtract(BigDecimal.valueOf(fd.getAmount())).doubleValue());
+                    pstmt.setString(2, today.toString());
+                    pstmt.setInt(3, fdId);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+                    pstmt.setString(1, accountNumber);
+                    pstmt.setDouble(2, amount.doubleValue());
+                    pstmt.setString(3, accountNumber); // Payout goes to the customer's account
+                    pstmt.setString(4, "FD Closed (ID: " + fdId + ")");
+                    pstmt.executeUpdate();
+                }
+                BalanceDB.applyDelta(conn, accountNumber, amount.doubleValue());
+                return amount;
+            }));
+            return Optional.ofNullable(payout);
+        } catch (SQLException e) {
+            System.err.println("Error closing FD: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
 
 
     // --- Grievances ---
 
     public static boolean createGrievance(String accountNumber, String complaint) {
+        return DbMetrics.time("CustomerDB.createGrievance", () -> doCreateGrievance(accountNumber, complaint));
+    }
+
+    private static boolean doCreateGrievance(String accountNumber, String complaint) {
         // Status defaults to 'Pending', remarks null initially
         String sql = "INSERT INTO Grievance (accno, complain, status, Timestamp) VALUES (?, ?, 'Pending', CURRENT_TIMESTAMP)";
         Connection conn = null;
@@ -467,6 +709,10 @@ public class CustomerDB {
     }
 
     public static List<Grievance> getGrievancesForAccount(String accountNumber) {
+        return DbMetrics.time("CustomerDB.getGrievancesForAccount", () -> doGetGrievancesForAccount(accountNumber));
+    }
+
+    private static List<Grievance> doGetGrievancesForAccount(String accountNumber) {
         List<Grievance> grievances = new ArrayList<>();
         String sql = "SELECT id, accno, complain, status, remarks, Timestamp FROM Grievance WHERE accno = ? ORDER BY id DESC";
         Connection conn = null;
@@ -1,18 +1,87 @@
 package db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseUtil {
 
-    private static final String DATABASE_URL = "jdbc:sqlite:C:/Program Files/Apache Software Foundation/Tomcat 9.0/simple_bank.db";
-
     private static boolean driverLoaded = false;
 
+    private static volatile AppConfig config;
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Borrows a connection from the pool. Closing it (e.g. via closeQuietly) returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        loadDriver(); // Ensure driver is loaded
-        return DriverManager.getConnection(DATABASE_URL);
+        return getPool().borrow();
+    }
+
+    /**
+     * Returns the application configuration, loading and validating it on first use.
+     */
+    public static AppConfig getConfig() {
+        AppConfig current = config;
+        if (current == null) {
+            synchronized (DatabaseUtil.class) {
+                current = config;
+                if (current == null) {
+                    current = AppConfig.load();
+                    System.out.println("Configuration loaded: " + current.describe());
+                    config = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the shared pool, creating and pre-warming it on first use.
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseUtil.class) {
+                current = pool;
+                if (current == null) {
+                    AppConfig cfg;
+                    try {
+                        cfg = getConfig();
+                    } catch (IllegalStateException e) {
+                        throw new SQLException(e.getMessage(), e);
+                    }
+                    loadDriver(); // Ensure driver is loaded
+                    current = new ConnectionPool(cfg.getDatabaseUrl(), cfg.getConnectionProfile(), cfg.getPoolSize(),
+                            cfg.getPoolMinIdle(), cfg.getPoolAcquireTimeoutMs(), cfg.isPoolValidateOnBorrow());
+                    initSchema(current);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Closes all pooled connections. Called when the web application is undeployed.
+     */
+    public static void shutdown() {
+        synchronized (DatabaseUtil.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+
+    // Brings the schema up to date (tables and indexes the application maintains itself)
+    private static void initSchema(ConnectionPool newPool) throws SQLException {
+        Connection conn = newPool.borrow();
+        try {
+            System.out.println("SQLite connection settings: " + newPool.getProfile().describeEffective(conn));
+            SchemaMigrator.migrate(conn);
+        } finally {
+            closeQuietly(conn);
+        }
     }
 
     private static void loadDriver() throws SQLException {
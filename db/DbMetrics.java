@@ -0,0 +1,109 @@
+package db;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-method call count, error count and latency histogram for the db package.
+ * Each public DB method is a thin wrapper that times its body:
+ *
+ *     public static Optional<FD> getFDById(int fdId) {
+ *         return DbMetrics.time("CustomerDB.getFDById", () -> doGetFDById(fdId));
+ *     }
+ *
+ * The bodies catch their own SQLExceptions, so errors are marked where they are thrown instead:
+ * the pooled connection and its statements call markError(), as does LedgerWriter.submit when a
+ * write fails. A call counts as an error if any SQL error happened while it was running.
+ *
+ * Exposed by the manager /metrics page. reset() starts a new window for every method.
+ */
+public class DbMetrics {
+
+    /** A timed call; E lets callers keep the checked exception of the body they wrap. */
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private static final Map<String, LatencyHistogram> METHODS = new ConcurrentHashMap<>();
+
+    // Innermost timer running on this thread, for markError()
+    private static final ThreadLocal<Timer> CURRENT = new ThreadLocal<>();
+
+    private static volatile long windowStartMillis = System.currentTimeMillis();
+
+    public static <T, E extends Exception> T time(String method, Call<T, E> call) throws E {
+        Timer timer = start(method);
+        try {
+            return call.call();
+        } catch (Exception | Error e) {
+            timer.error();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Starts timing a call on this thread. stop() must be called on the same thread, in a finally block.
+     */
+    public static Timer start(String method) {
+        LatencyHistogram histogram = METHODS.get(method);
+        if (histogram == null) {
+            histogram = METHODS.computeIfAbsent(method, m -> new LatencyHistogram());
+        }
+        Timer timer = new Timer(histogram, CURRENT.get());
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /** Marks the call running on this thread, if any, as failed. */
+    public static void markError() {
+        Timer timer = CURRENT.get();
+        if (timer != null) {
+            timer.error();
+        }
+    }
+
+    /** Histograms by method name, sorted by name. */
+    public static Map<String, LatencyHistogram> getMethods() {
+        return new TreeMap<>(METHODS);
+    }
+
+    public static long getWindowStartMillis() {
+        return windowStartMillis;
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : METHODS.values()) {
+            histogram.reset();
+        }
+        windowStartMillis = System.currentTimeMillis();
+    }
+
+    /** One call in progress. */
+    public static class Timer {
+        private final LatencyHistogram histogram;
+        private final Timer outer;
+        private final long startNanos = System.nanoTime();
+        private boolean error;
+
+        Timer(LatencyHistogram histogram, Timer outer) {
+            this.histogram = histogram;
+            this.outer = outer;
+        }
+
+        public void error() {
+            error = true;
+        }
+
+        public void stop() {
+            histogram.record(System.nanoTime() - startNanos, error);
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
\ No newline at end of file
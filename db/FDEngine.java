@@ -0,0 +1,114 @@
+package db;
+
+import model.FD;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fixed deposit interest rules and the daily accrual pass.
+ * Interest is simple interest on the principal, amount * rate/100 * days/365.25, counted from
+ * start_date and capped at maturity (start_date + duration_years). Closing before maturity
+ * earns the approved rate minus PREMATURE_PENALTY_RATE.
+ * Pages read FD.accrued_interest instead of computing interest per row; accrueAll() refreshes
+ * that column for every Active FD in a single UPDATE.
+ */
+public class FDEngine {
+
+    /** Percentage points taken off the annual rate when an FD is closed before maturity. */
+    public static final double PREMATURE_PENALTY_RATE = 1.0;
+
+    private static final BigDecimal DAYS_IN_YEAR = new BigDecimal("365.25");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    // Column list shared by every FD query so toFD() can map the row
+    static final String FD_COLUMNS = "id, accno, created_at, start_date, amount, duration_years, status, interest_rate, accrued_interest";
+
+    public static LocalDate getMaturityDate(FD fd) {
+        return LocalDate.parse(fd.getStartDate()).plusYears(fd.getTermYears());
+    }
+
+    public static boolean isMature(FD fd, LocalDate onDate) {
+        return !onDate.isBefore(getMaturityDate(fd));
+    }
+
+    /**
+     * Simple interest between two dates, rounded to 2 decimals. No interest for end dates before start.
+     */
+    public static BigDecimal interest(double amount, double annualRatePercent, LocalDate start, LocalDate end) {
+        long days = Math.max(0, ChronoUnit.DAYS.between(start, end));
+        return BigDecimal.valueOf(amount)
+                .multiply(BigDecimal.valueOf(annualRatePercent))
+                .multiply(BigDecimal.valueOf(days))
+                .divide(HUNDRED.multiply(DAYS_IN_YEAR), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Principal plus interest paid out when the FD is closed on closeDate.
+     * Interest stops at maturity; before maturity the penalty rate applies.
+     */
+    public static BigDecimal getPayoutAmount(FD fd, LocalDate closeDate) {
+        LocalDate start = LocalDate.parse(fd.getStartDate());
+        LocalDate maturity = getMaturityDate(fd);
+        double rate = Double.parseDouble(Float.toString(fd.getInterestRate())); // 7.1f, not 7.0999999
+        LocalDate end = closeDate;
+        if (closeDate.isBefore(maturity)) {
+            rate = Math.max(0.0, rate - PREMATURE_PENALTY_RATE);
+        } else {
+            end = maturity;
+        }
+        return BigDecimal.valueOf(fd.getAmount()).add(interest(fd.getAmount(), rate, start, end))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Recomputes accrued_interest for every Active FD as of the given date, in one statement.
+     * FDs already accrued for that date are skipped, so running it more than once a day is cheap.
+     * Returns the number of FDs updated.
+     */
+    public static int accrueAll(LocalDate asOf) throws SQLException {
+        // Same formula as interest(): days from start_date to min(asOf, maturity), at the full rate
+        String sql = "UPDATE FD SET " +
+                     "  accrued_interest = ROUND(amount * interest_rate / 100.0 * " +
+                     "      MAX(0, julianday(MIN(?, date(start_date, '+' || duration_years || ' years'))) - julianday(start_date)) / 365.25, 2)," +
+                     "  accrued_through = ? " +
+                     "WHERE status = 'Active' AND start_date IS NOT NULL " +
+                     "  AND (accrued_through IS NULL OR accrued_through < ?)";
+        String date = asOf.toString();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, date);
+            pstmt.setString(2, date);
+            pstmt.setString(3, date);
+            long start = System.currentTimeMillis();
+            int updated = pstmt.executeUpdate();
+            System.out.println("FD interest accrued through " + date + " for " + updated + " deposit(s) in "
+                    + (System.currentTimeMillis() - start) + " ms.");
+            return updated;
+        } finally {
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+
+    // Maps a row selected with FD_COLUMNS
+    static FD toFD(ResultSet rs) throws SQLException {
+        return new FD(
+                rs.getInt("id"),
+                rs.getString("accno"),
+                rs.getString("created_at"),
+                rs.getDouble("amount"),
+                rs.getFloat("interest_rate"),
+                rs.getInt("duration_years"),
+                rs.getString("status"),
+                rs.getString("start_date"),
+                rs.getDouble("accrued_interest"));
+    }
+}
\ No newline at end of file
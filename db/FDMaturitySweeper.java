@@ -0,0 +1,191 @@
+package db;
+
+import model.FD;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pays out every Active FD that has reached maturity (start_date + duration_years).
+ * Matured FDs are read in id order, a chunk at a time; each chunk is posted as one ledger write
+ * using JDBC batches: status updates, then the "FD Closed (ID: x)" credit rows, then one balance
+ * update per account. Scheduled from AppLifecycleListener; also runnable via tools.FDMaturitySweepCli.
+ */
+public class FDMaturitySweeper {
+
+    private static final int CHUNK_SIZE = DatabaseUtil.getConfig().getInt("fd.sweepBatchSize", 1000);
+
+    /** Outcome of one run. */
+    public static class Summary {
+        private final String asOfDate;
+        private final int fdsClosed;
+        private final BigDecimal totalPaidOut;
+        private final int chunks;
+        private final long elapsedMillis;
+
+        Summary(String asOfDate, int fdsClosed, BigDecimal totalPaidOut, int chunks, long elapsedMillis) {
+            this.asOfDate = asOfDate;
+            this.fdsClosed = fdsClosed;
+            this.totalPaidOut = totalPaidOut;
+            this.chunks = chunks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getAsOfDate() {
+            return asOfDate;
+        }
+
+        public int getFdsClosed() {
+            return fdsClosed;
+        }
+
+        public BigDecimal getTotalPaidOut() {
+            return totalPaidOut;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Paid out %d matured FD(s) as of %s, total %s, in %d chunk(s), %d ms.",
+                    fdsClosed, asOfDate, totalPaidOut.toPlainString(), chunks, elapsedMillis);
+        }
+    }
+
+    // One sweep at a time; a scheduled run and a manual run must not post the same FDs
+    public static synchronized Summary run(LocalDate asOf) throws SQLException {
+        long start = System.currentTimeMillis();
+        int closed = 0;
+        int chunks = 0;
+        BigDecimal paid = BigDecimal.ZERO;
+
+        int lastId = 0;
+        while (true) {
+            List<FD> matured = findMatured(asOf, lastId);
+            if (matured.isEmpty()) {
+                break;
+            }
+            lastId = matured.get(matured.size() - 1).getId();
+
+            List<BigDecimal> payouts = new ArrayList<>(matured.size());
+            for (FD fd : matured) {
+                payouts.add(FDEngine.getPayoutAmount(fd, asOf));
+            }
+            ChunkResult result = LedgerWriter.submit(conn -> postChunk(conn, matured, payouts, asOf));
+            closed += result.closed;
+            paid = paid.add(result.paid);
+            chunks++;
+
+            if (matured.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        Summary summary = new Summary(asOf.toString(), closed, paid, chunks, System.currentTimeMillis() - start);
+        System.out.println("FD maturity sweep: " + summary);
+        return summary;
+    }
+
+    private static List<FD> findMatured(LocalDate asOf, int afterId) throws SQLException {
+        String sql = "SELECT " + FDEngine.FD_COLUMNS + " FROM FD " +
+                     "WHERE status = 'Active' AND start_date IS NOT NULL " +
+                     "  AND date(start_date, '+' || duration_years || ' years') <= ? AND id > ? " +
+                     "ORDER BY id LIMIT ?";
+        List<FD> fds = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, asOf.toString());
+            pstmt.setInt(2, afterId);
+            pstmt.setInt(3, CHUNK_SIZE);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                fds.add(FDEngine.toFD(rs));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return fds;
+    }
+
+    // Runs on the ledger writer's connection; everything commits or rolls back together
+    private static ChunkResult postChunk(Connection conn, List<FD> fds, List<BigDecimal> payouts, LocalDate asOf) throws SQLException {
+        String updateSQL = "UPDATE FD SET status = 'Closed', accrued_interest = ?, accrued_through = ?, closed_at = CURRENT_TIMESTAMP " +
+                           "WHERE id = ? AND status = 'Active'";
+        String insertSQL = "INSERT INTO Transactions (accno, amount, to_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+        String balanceSQL = "INSERT INTO Account_Balance (accno, balance) VALUES (?, ?) " +
+                            "ON CONFLICT(accno) DO UPDATE SET balance = balance + excluded.balance";
+
+        // 1. Flip status; an FD closed by its owner since it was read updates 0 rows and is skipped
+        int[] updated;
+        try (PreparedStatement pstmt = conn.prepareStatement(updateSQL)) {
+            for (int i = 0; i < fds.size(); i++) {
+                FD fd = fds.get(i);
+                pstmt.setDouble(1, payouts.get(i).subtract(BigDecimal.valueOf(fd.getAmount())).doubleValue());
+                pstmt.setString(2, FDEngine.getMaturityDate(fd).toString());
+                pstmt.setInt(3, fd.getId());
+                pstmt.addBatch();
+            }
+            updated = pstmt.executeBatch();
+        }
+
+        // 2. Credit rows for the FDs that were actually closed, summing credits per account
+        ChunkResult result = new ChunkResult();
+        Map<String, BigDecimal> credits = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+            for (int i = 0; i < fds.size(); i++) {
+                if (updated[i] == 0) {
+                    continue;
+                }
+                FD fd = fds.get(i);
+                BigDecimal amount = payouts.get(i);
+                pstmt.setString(1, fd.getAccNumber());
+                pstmt.setDouble(2, amount.doubleValue());
+                pstmt.setString(3, fd.getAccNumber()); // Payout goes to the customer's account
+                pstmt.setString(4, "FD Closed (ID: " + fd.getId() + ")");
+                pstmt.addBatch();
+                credits.merge(fd.getAccNumber(), amount, BigDecimal::add);
+                result.closed++;
+                result.paid = result.paid.add(amount);
+            }
+            if (result.closed > 0) {
+                pstmt.executeBatch();
+            }
+        }
+
+        // 3. One balance update per account (same upsert as BalanceDB.applyDelta)
+        if (!credits.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(balanceSQL)) {
+                for (Map.Entry<String, BigDecimal> credit : credits.entrySet()) {
+                    pstmt.setString(1, credit.getKey());
+                    pstmt.setDouble(2, credit.getValue().doubleValue());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        return result;
+    }
+
+    private static class ChunkResult {
+        int closed = 0;
+        BigDecimal paid = BigDecimal.ZERO;
+    }
+}
\ No newline at end of file
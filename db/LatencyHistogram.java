@@ -0,0 +1,156 @@
+package db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: four buckets per power of two of microseconds,
+ * so any recorded value is within about 19% of its bucket bound, from 1 microsecond to days.
+ * Recording is a few additions on LongAdders; percentiles are computed only when read.
+ * Also keeps count, error count, sum and max. reset() starts a new window.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4; // Per power of two
+    private static final int OCTAVES = 40;    // 2^40 microseconds is about 12 days
+    private static final int BUCKETS = OCTAVES * SUB_BUCKETS + 1; // Bucket 0: under 1 microsecond
+
+    /** Upper bounds (in seconds) reported as Prometheus histogram buckets; "+Inf" is added after them. */
+    public static final double[] EXPORT_BOUNDS_SECONDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos, boolean error) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucketOf(nanos / 1000)].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        if (error) {
+            errors.increment();
+        }
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Bucket index for a value in microseconds
+    private static int bucketOf(long micros) {
+        if (micros < 1) {
+            return 0;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros); // floor(log2(micros))
+        if (octave >= OCTAVES) {
+            return BUCKETS - 1;
+        }
+        // Next two bits below the leading one pick the sub-bucket
+        int sub = octave >= 2 ? (int) ((micros >>> (octave - 2)) & 3) : (int) ((micros << (2 - octave)) & 3);
+        return 1 + octave * SUB_BUCKETS + sub;
+    }
+
+    // Upper bound of a bucket, in microseconds
+    private static double upperBoundMicros(int bucket) {
+        if (bucket == 0) {
+            return 1;
+        }
+        int octave = (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        return Math.pow(2, octave) * (1 + (sub + 1) / (double) SUB_BUCKETS);
+    }
+
+    /** Consistent copy of the counters, for computing percentiles and exporting. */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(counts, count.sum(), errors.sum(), sumNanos.sum(), maxNanos.get());
+    }
+
+    /** Starts a new window. Values recorded while resetting may land in either window. */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        errors.reset();
+        sumNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /** Point-in-time view of one histogram. */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long errors;
+        private final long sumNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] counts, long count, long errors, long sumNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.errors = errors;
+            this.sumNanos = sumNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getSumSeconds() {
+            return sumNanos / 1e9;
+        }
+
+        public double getMaxSeconds() {
+            return maxNanos / 1e9;
+        }
+
+        /** Latency at the given quantile (0..1), as the upper bound of its bucket, capped at the max seen. */
+        public double getQuantileSeconds(double quantile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundMicros(i) / 1e6, getMaxSeconds());
+                }
+            }
+            return getMaxSeconds();
+        }
+
+        /** Number of values at or below the bound, for cumulative Prometheus buckets. */
+        public long getCountAtOrBelow(double boundSeconds) {
+            double boundMicros = boundSeconds * 1e6;
+            long seen = 0;
+            for (int i = 0; i < counts.length && upperBoundMicros(i) <= boundMicros; i++) {
+                seen += counts[i];
+            }
+            return seen;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,319 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread for ledger writes (Transactions inserts and the balance updates that go with them).
+ * SQLite allows one writer at a time, so instead of every request committing on its own connection,
+ * callers enqueue their write and wait for its future. The writer drains whatever is queued into one
+ * database transaction (group commit): one lock acquisition and one fsync per batch instead of per write.
+ * Each write runs inside its own savepoint, so a failing write is rolled back alone and only its caller
+ * sees the error. If the writer thread dies, the writes it held fail and the next submit starts a new one.
+ */
+public class LedgerWriter {
+
+    /** A unit of work executed on the writer's connection inside the batch transaction. */
+    public interface LedgerWrite<T> {
+        // Must not commit, roll back or change auto-commit; throw to undo this write only
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private static final int QUEUE_CAPACITY = DatabaseUtil.getConfig().getInt("ledger.queueCapacity", 1024);
+    private static final int MAX_BATCH_SIZE = DatabaseUtil.getConfig().getInt("ledger.maxBatchSize", 256);
+    private static final long SUBMIT_TIMEOUT_MS = DatabaseUtil.getConfig().getLong("ledger.submitTimeoutMs", 10000L);
+    private static final long RESULT_TIMEOUT_MS = DatabaseUtil.getConfig().getLong("ledger.resultTimeoutMs", 30000L);
+
+    private static final BlockingQueue<PendingWrite<?>> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private static Thread writerThread;
+    private static volatile boolean running = false;
+
+    // Metrics
+    private static final AtomicLong BATCHES = new AtomicLong();
+    private static final AtomicLong WRITES = new AtomicLong();
+    private static final AtomicLong FAILED_WRITES = new AtomicLong();
+    private static final AtomicLong MAX_BATCH = new AtomicLong();
+    private static final AtomicLong LAST_BATCH = new AtomicLong();
+    private static final AtomicLong COMMIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_COMMIT_NANOS = new AtomicLong();
+
+    /**
+     * Enqueues a write and blocks the calling thread until its batch has committed (or failed).
+     * Returns the write's own result; throws the write's own SQLException if it failed.
+     * Waits ledger.resultTimeoutMs for the writer to pick the write up. A write that has not started by then
+     * is withdrawn and never runs; one that has started is waited for until its batch finishes, so the caller
+     * always learns whether it was applied.
+     */
+    public static <T> T submit(LedgerWrite<T> work) throws SQLException {
+        ensureStarted();
+        PendingWrite<T> pending = new PendingWrite<>(work);
+        try {
+            if (!QUEUE.offer(pending, SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                DbMetrics.markError();
+                throw new SQLException("Ledger write queue is full (" + QUEUE_CAPACITY + " pending writes).");
+            }
+            return pending.future.get(RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.cancel()) {
+                DbMetrics.markError();
+                throw new SQLException("Ledger write timed out after " + RESULT_TIMEOUT_MS + " ms in the queue; it was not applied.");
+            }
+            return awaitStarted(pending); // Its batch is running and will commit or roll back shortly
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                throw new SQLException("Interrupted while waiting for ledger write; it was not applied.", e);
+            }
+            return awaitStarted(pending);
+        } catch (ExecutionException e) {
+            throw writeFailed(e);
+        }
+    }
+
+    // Once the writer has started a write, giving up would leave the caller unsure whether it committed,
+    // so wait out the batch, ignoring interrupts (the flag is restored for the caller)
+    private static <T> T awaitStarted(PendingWrite<T> pending) throws SQLException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pending.future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw writeFailed(e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static SQLException writeFailed(ExecutionException e) {
+        DbMetrics.markError(); // The write ran on the writer thread; charge its failure to the caller
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        return new SQLException("Ledger write failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Stops the writer after the writes already queued have been committed.
+     */
+    public static synchronized void shutdown() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(SUBMIT_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+        System.out.println("Ledger writer stopped.");
+    }
+
+    // --- Metrics ---
+
+    public static int getQueueDepth() {
+        return QUEUE.size();
+    }
+
+    public static long getBatchCount() {
+        return BATCHES.get();
+    }
+
+    public static long getWriteCount() {
+        return WRITES.get();
+    }
+
+    public static long getFailedWriteCount() {
+        return FAILED_WRITES.get();
+    }
+
+    public static long getLastBatchSize() {
+        return LAST_BATCH.get();
+    }
+
+    public static long getMaxBatchSize() {
+        return MAX_BATCH.get();
+    }
+
+    public static double getAverageBatchSize() {
+        long batches = BATCHES.get();
+        return batches == 0 ? 0.0 : (double) WRITES.get() / batches;
+    }
+
+    public static double getAverageCommitMillis() {
+        long batches = BATCHES.get();
+        return batches == 0 ? 0.0 : COMMIT_NANOS.get() / 1_000_000.0 / batches;
+    }
+
+    public static double getMaxCommitMillis() {
+        return MAX_COMMIT_NANOS.get() / 1_000_000.0;
+    }
+
+    // --- Writer thread ---
+
+    private static synchronized void ensureStarted() {
+        if (writerThread != null) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(LedgerWriter::runLoop, "ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        System.out.println("Ledger writer started: queueCapacity=" + QUEUE_CAPACITY + ", maxBatchSize=" + MAX_BATCH_SIZE);
+    }
+
+    private static void runLoop() {
+        List<PendingWrite<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (running || !QUEUE.isEmpty()) {
+                try {
+                    PendingWrite<?> first = running ? QUEUE.take() : QUEUE.poll();
+                    if (first == null) {
+                        break;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    continue; // Shutdown requested; drain what is left
+                }
+                QUEUE.drainTo(batch, MAX_BATCH_SIZE - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (Throwable t) {
+            // Fail everything this writer was holding so no caller waits on it, and let the next submit start a new one
+            System.err.println("Ledger writer thread died: " + t);
+            clearWriterThread();
+            QUEUE.drainTo(batch);
+            for (PendingWrite<?> pending : batch) {
+                pending.future.completeExceptionally(t);
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+    }
+
+    private static synchronized void clearWriterThread() {
+        if (writerThread == Thread.currentThread()) {
+            writerThread = null;
+        }
+    }
+
+    private static void writeBatch(List<PendingWrite<?>> batch) {
+        Connection conn = null;
+        Object[] results = new Object[batch.size()];
+        Throwable[] errors = new Throwable[batch.size()];
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (!batch.get(i).start()) {
+                    continue; // Timed out in the queue; its caller has already been told
+                }
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    results[i] = batch.get(i).work.apply(conn);
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback(savepoint);
+                    errors[i] = e;
+                }
+            }
+
+            long start = System.nanoTime();
+            conn.commit();
+            long elapsed = System.nanoTime() - start;
+            COMMIT_NANOS.addAndGet(elapsed);
+            MAX_COMMIT_NANOS.accumulateAndGet(elapsed, Math::max);
+
+        } catch (SQLException | RuntimeException | Error e) {
+            // The batch transaction itself failed: nothing in it was committed
+            System.err.println("Error committing ledger batch of " + batch.size() + " write(s): " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Error rolling back ledger batch: " + ex.getMessage());
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (errors[i] == null) {
+                    errors[i] = e;
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) { /* ignore */ }
+                DatabaseUtil.closeQuietly(conn);
+            }
+        }
+
+        BATCHES.incrementAndGet();
+        WRITES.addAndGet(batch.size());
+        LAST_BATCH.set(batch.size());
+        MAX_BATCH.accumulateAndGet(batch.size(), Math::max);
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                FAILED_WRITES.incrementAndGet();
+                batch.get(i).future.completeExceptionally(errors[i]);
+            } else {
+                batch.get(i).complete(results[i]);
+            }
+        }
+    }
+
+    private static class PendingWrite<T> {
+        private static final int QUEUED = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        final LedgerWrite<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        PendingWrite(LedgerWrite<T> work) {
+            this.work = work;
+        }
+
+        // Writer side: false if the caller gave up first
+        boolean start() {
+            return state.compareAndSet(QUEUED, STARTED);
+        }
+
+        // Caller side: false if the writer already started it
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package db;
+
+import model.Loan;
+import model.LoanValuation;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * End-of-day valuation of the whole loan book.
+ * Streams the Loan table, values loans in parallel chunks across all cores and writes the
+ * results into the Loan_Valuation snapshot table for the valuation date in one bulk transaction.
+ * Runnable from the manager portal and from the command line (tools.LoanValuationCli).
+ */
+public class LoanValuationJob {
+
+    private static final int CHUNK_SIZE = 2000;
+    private static final int FETCH_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /** Outcome of one run. */
+    public static class Summary {
+        private final String valuationDate;
+        private final int loansValued;
+        private final long elapsedMillis;
+
+        Summary(String valuationDate, int loansValued, long elapsedMillis) {
+            this.valuationDate = valuationDate;
+            this.loansValued = loansValued;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getValuationDate() {
+            return valuationDate;
+        }
+
+        public int getLoansValued() {
+            return loansValued;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? loansValued : loansValued * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Valued %d loan(s) as of %s in %d ms (%.0f rows/s).",
+                    loansValued, valuationDate, elapsedMillis, getRowsPerSecond());
+        }
+    }
+
+    // Only one valuation run at a time; a second click in the portal waits for the first
+    public static synchronized Summary run(LocalDate valuationDate) throws SQLException {
+        String selectSQL = "SELECT id, amount, accno, int_rate, date, duration FROM Loan ORDER BY id";
+        long start = System.currentTimeMillis();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "loan-valuation");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<List<LoanValuation>>> chunks = new ArrayList<>();
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            // 1. Stream loans and hand them to the workers chunk by chunk while reading continues
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(selectSQL);
+            pstmt.setFetchSize(FETCH_SIZE);
+            rs = pstmt.executeQuery();
+
+            List<Loan> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (rs.next()) {
+                chunk.add(new Loan(
+                        rs.getInt("id"),
+                        rs.getDouble("amount"),
+                        rs.getString("accno"),
+                        rs.getDouble("int_rate"),
+                        rs.getString("date"),
+                        rs.getInt("duration")));
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(submitChunk(executor, chunk, valuationDate));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(submitChunk(executor, chunk, valuationDate));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+            executor.shutdown();
+        }
+
+        // 2. Write the snapshot in one transaction, replacing any earlier run for the same date
+        int written = writeSnapshot(chunks, valuationDate);
+
+        Summary summary = new Summary(valuationDate.toString(), written, System.currentTimeMillis() - start);
+        System.out.println("Loan valuation job: " + summary);
+        return summary;
+    }
+
+    private static Future<List<LoanValuation>> submitChunk(ExecutorService executor, List<Loan> loans, LocalDate date) {
+        return executor.submit(() -> {
+            List<LoanValuation> results = new ArrayList<>(loans.size());
+            for (Loan loan : loans) {
+                results.add(LoanValuator.value(loan, date));
+            }
+            return results;
+        });
+    }
+
+    private static int writeSnapshot(List<Future<List<LoanValuation>>> chunks, LocalDate valuationDate) throws SQLException {
+        String deleteSQL = "DELETE FROM Loan_Valuation WHERE valuation_date = ?";
+        String insertSQL = "INSERT INTO Loan_Valuation (loan_id, valuation_date, accno, principal, payoff_amount, overdue_half_years, effective_rate) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Connection conn = null;
+        PreparedStatement pstmtDelete = null;
+        PreparedStatement pstmtInsert = null;
+        int written = 0;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            pstmtDelete = conn.prepareStatement(deleteSQL);
+            pstmtDelete.setString(1, valuationDate.toString());
+            pstmtDelete.executeUpdate();
+
+            pstmtInsert = conn.prepareStatement(insertSQL);
+            int pending = 0;
+            for (Future<List<LoanValuation>> chunk : chunks) {
+                for (LoanValuation valuation : chunk.get()) {
+                    pstmtInsert.setInt(1, valuation.getLoanId());
+                    pstmtInsert.setString(2, valuation.getValuationDate());
+                    pstmtInsert.setString(3, valuation.getAccountNumber());
+                    pstmtInsert.setDouble(4, valuation.getPrincipal());
+                    pstmtInsert.setBigDecimal(5, valuation.getPayoffAmount());
+                    pstmtInsert.setLong(6, valuation.getOverdueHalfYears());
+                    pstmtInsert.setBigDecimal(7, valuation.getEffectiveRatePercent());
+                    pstmtInsert.addBatch();
+                    if (++pending == INSERT_BATCH_SIZE) {
+                        pstmtInsert.executeBatch();
+                        pending = 0;
+                    }
+                    written++;
+                }
+            }
+            if (pending > 0) {
+                pstmtInsert.executeBatch();
+            }
+
+            conn.commit();
+            return written;
+
+        } catch (SQLException | InterruptedException | ExecutionException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Error rolling back loan valuation snapshot: " + ex.getMessage());
+                }
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw e instanceof SQLException ? (SQLException) e
+                    : new SQLException("Loan valuation failed: " + e.getMessage(), e);
+        } finally {
+            DatabaseUtil.closeQuietly(pstmtDelete);
+            DatabaseUtil.closeQuietly(pstmtInsert);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) { /* ignore */ }
+                DatabaseUtil.closeQuietly(conn);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package db;
+
+import model.Loan;
+import model.LoanValuation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loan payoff calculation with caching.
+ * Rules (unchanged): interest compounds quarterly at the loan's annual rate; for every full half-year
+ * past the loan duration the annual rate goes up by 1 percentage point.
+ * Payoff amounts are cached per (loan id, valuation date), so a dashboard with many loans
+ * costs a map lookup per loan after the first view of the day. Growth over whole quarters,
+ * (1 + r/4)^n, comes from tables precomputed per rate; only the fraction of the current quarter
+ * needs a Math.pow, with an exponent below 1.
+ */
+public class LoanValuator {
+
+    private static final BigDecimal DAYS_IN_YEAR = new BigDecimal("365.25");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal FOUR = new BigDecimal("4");
+    private static final BigDecimal TWO = new BigDecimal("2");
+    private static final MathContext MC = MathContext.DECIMAL64;
+
+    // Cached payoff per loan id; an entry is only valid for the date it was computed on
+    private static final int MAX_CACHED_LOANS = 100_000;
+    private static final Map<Integer, CachedPayoff> PAYOFF_CACHE = new ConcurrentHashMap<>();
+
+    // (1 + quarterly rate)^n for n = 0, 1, 2, ... keyed by effective annual rate in percent
+    private static final Map<BigDecimal, GrowthTable> GROWTH_TABLES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    /**
+     * Amount needed to repay the loan today, from the cache when possible.
+     */
+    public static BigDecimal getPayoffAmount(Loan loan) {
+        LocalDate today = LocalDate.now();
+        CachedPayoff cached = PAYOFF_CACHE.get(loan.getId());
+        if (cached != null && cached.date.equals(today)) {
+            HITS.incrementAndGet();
+            return cached.amount;
+        }
+        MISSES.incrementAndGet();
+        BigDecimal amount = value(loan, today).getPayoffAmount();
+        if (PAYOFF_CACHE.size() >= MAX_CACHED_LOANS) {
+            PAYOFF_CACHE.clear(); // Crude bound; entries from earlier days are the bulk of it anyway
+        }
+        PAYOFF_CACHE.put(loan.getId(), new CachedPayoff(today, amount));
+        return amount;
+    }
+
+    /**
+     * Drops the cached payoff of a loan, e.g. after a repayment.
+     */
+    public static void invalidate(int loanId) {
+        PAYOFF_CACHE.remove(loanId);
+    }
+
+    /**
+     * Full valuation of a loan on a given date. Not cached; used directly by batch jobs.
+     */
+    public static LoanValuation value(Loan loan, LocalDate valuationDate) {
+        LocalDate creationDate = LocalDate.parse(loan.getDateCreated()); // Assumes YYYY-MM-DD format
+
+        BigDecimal principal = BigDecimal.valueOf(loan.getAmount());
+        BigDecimal normalAnnualRatePercent = BigDecimal.valueOf(loan.getInterestRate()); // e.g., 5.0 for 5%
+
+        long totalDaysPassed = Math.max(ChronoUnit.DAYS.between(creationDate, valuationDate), 0);
+        BigDecimal totalYearsPassed = new BigDecimal(totalDaysPassed).divide(DAYS_IN_YEAR, 10, RoundingMode.HALF_UP);
+        BigDecimal loanDurationYears = BigDecimal.valueOf(loan.getDurationYears());
+
+        // Overdue penalty: +1% per full half-year past the duration
+        long halfYearsPassed = 0;
+        if (totalYearsPassed.compareTo(loanDurationYears) > 0) {
+            halfYearsPassed = totalYearsPassed.subtract(loanDurationYears).multiply(TWO)
+                    .setScale(0, RoundingMode.FLOOR).longValue();
+        }
+        BigDecimal effectiveAnnualRatePercent = normalAnnualRatePercent.add(BigDecimal.valueOf(halfYearsPassed));
+        if (effectiveAnnualRatePercent.signum() < 0) {
+            effectiveAnnualRatePercent = BigDecimal.ZERO;
+        }
+
+        // Quarterly compounding: (1 + q)^quarters, with the full quarters from the growth table and the
+        // fractional remainder compounded too, as (1 + q)^f for 0 <= f < 1
+        BigDecimal quarters = totalYearsPassed.multiply(FOUR);
+        int fullQuarters = quarters.setScale(0, RoundingMode.FLOOR).intValueExact();
+        double partialQuarter = quarters.subtract(BigDecimal.valueOf(fullQuarters)).doubleValue();
+
+        GrowthTable table = GROWTH_TABLES.computeIfAbsent(effectiveAnnualRatePercent.stripTrailingZeros(), GrowthTable::new);
+        BigDecimal partialGrowth = BigDecimal.valueOf(Math.pow(BigDecimal.ONE.add(table.quarterlyRate).doubleValue(), partialQuarter));
+        BigDecimal growth = table.factor(fullQuarters).multiply(partialGrowth, MC);
+
+        BigDecimal payoff = principal.multiply(growth, MC).setScale(2, RoundingMode.HALF_UP);
+        return new LoanValuation(loan.getId(), loan.getAccountNumber(), valuationDate.toString(), loan.getAmount(),
+                payoff, halfYearsPassed, effectiveAnnualRatePercent);
+    }
+
+    // --- Metrics ---
+
+    public static long getCacheHits() {
+        return HITS.get();
+    }
+
+    public static long getCacheMisses() {
+        return MISSES.get();
+    }
+
+    public static int getCachedLoanCount() {
+        return PAYOFF_CACHE.size();
+    }
+
+    // --- Internals ---
+
+    private static class CachedPayoff {
+        final LocalDate date;
+        final BigDecimal amount;
+
+        CachedPayoff(LocalDate date, BigDecimal amount) {
+            this.date = date;
+            this.amount = amount;
+        }
+    }
+
+    // Powers of (1 + quarterly rate), extended on demand
+    private static class GrowthTable {
+        final BigDecimal quarterlyRate;
+        private volatile BigDecimal[] powers;
+
+        GrowthTable(BigDecimal annualRatePercent) {
+            this.quarterlyRate = annualRatePercent.divide(HUNDRED, MC).divide(FOUR, MC);
+            this.powers = new BigDecimal[] { BigDecimal.ONE };
+        }
+
+        BigDecimal factor(int n) {
+            BigDecimal[] current = powers;
+            if (n < current.length) {
+                return current[n];
+            }
+            synchronized (this) {
+                current = powers;
+                if (n >= current.length) {
+                    // Grow geometrically so long-running loans don't extend the table one quarter at a time
+                    BigDecimal[] grown = new BigDecimal[Math.max(n + 1, current.length * 2)];
+                    System.arraycopy(current, 0, grown, 0, current.length);
+                    BigDecimal base = BigDecimal.ONE.add(quarterlyRate, MC);
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = grown[i - 1].multiply(base, MC);
+                    }
+                    powers = grown;
+                    current = grown;
+                }
+                return current[n];
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,16 +1,24 @@
 package db;
 
 import model.Customer;
+import model.FD;
 import model.Grievance;
 import model.PartialSignup;
+import model.SignupApproval;
+import model.SignupDecisionResult;
 import model.Staff;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
-import com.google.gson.Gson; // Needed if parsing JSON from PartialSignup
+import java.util.Set;
 
 public class ManagerDB {
 
@@ -18,6 +26,10 @@ public class ManagerDB {
 
     // Validate login based on mobile number and password hash
     public static Optional<Staff> validateManagerLogin(String mobile, String passwordHash) {
+        return DbMetrics.time("ManagerDB.validateManagerLogin", () -> doValidateManagerLogin(mobile, passwordHash));
+    }
+
+    private static Optional<Staff> doValidateManagerLogin(String mobile, String passwordHash) {
         String sql = "SELECT id, name, mobile, role, password FROM Staff WHERE mobile = ? AND password = ? AND role = 'MANAGER' LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -51,6 +63,10 @@ public class ManagerDB {
 
     // Get manager details by mobile (e.g., after session validation)
     public static Optional<Staff> getManagerByMobile(String mobile) {
+        return DbMetrics.time("ManagerDB.getManagerByMobile", () -> doGetManagerByMobile(mobile));
+    }
+
+    private static Optional<Staff> doGetManagerByMobile(String mobile) {
         String sql = "SELECT id, name, mobile, role, password FROM Staff WHERE mobile = ? AND role = 'MANAGER' LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -82,6 +98,10 @@ public class ManagerDB {
     }
 
     public static boolean updateManagerPassword(String mobile, String newPasswordHash) {
+        return DbMetrics.time("ManagerDB.updateManagerPassword", () -> doUpdateManagerPassword(mobile, newPasswordHash));
+    }
+
+    private static boolean doUpdateManagerPassword(String mobile, String newPasswordHash) {
         String sql = "UPDATE Staff SET password = ? WHERE mobile = ? AND role = 'MANAGER'";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -105,6 +125,10 @@ public class ManagerDB {
 
     // Update Manager's own name
     public static boolean updateManagerName(String mobile, String newName) {
+        return DbMetrics.time("ManagerDB.updateManagerName", () -> doUpdateManagerName(mobile, newName));
+    }
+
+    private static boolean doUpdateManagerName(String mobile, String newName) {
         String sql = "UPDATE Staff SET name = ? WHERE mobile = ? AND role = 'MANAGER'";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -130,6 +154,10 @@ public class ManagerDB {
     // Consider if this feature is truly needed due to complexity/risk.
     // For simplicity, let's implement it but add a strong warning.
     public static boolean updateManagerMobile(String oldMobile, String newMobile) {
+        return DbMetrics.time("ManagerDB.updateManagerMobile", () -> doUpdateManagerMobile(oldMobile, newMobile));
+    }
+
+    private static boolean doUpdateManagerMobile(String oldMobile, String newMobile) {
         // Add check: ensure new mobile doesn't already exist for another staff/manager
         if (StaffDB.staffExistsByMobile(newMobile)) {
             System.err.println("Error updating manager mobile: New mobile '" + newMobile + "' already exists.");
@@ -163,13 +191,10 @@ public class ManagerDB {
     // --- Loan Creation ---
 
     public static boolean createLoan(String accountNumber, double amount, double interestRate, int durationYears) {
-        String insertLoanSQL = "INSERT INTO Loan (accno, amount, int_rate, date, duration) VALUES (?, ?, ?, CURRENT_DATE, ?)";
-        String insertTransactionSQL = "INSERT INTO Transactions (accno, amount, to_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
-        Connection conn = null;
-        PreparedStatement pstmtLoan = null;
-        PreparedStatement pstmtTransaction = null;
-        boolean success = false;
+        return DbMetrics.time("ManagerDB.createLoan", () -> doCreateLoan(accountNumber, amount, interestRate, durationYears));
+    }
 
+    private static boolean doCreateLoan(String accountNumber, double amount, double interestRate, int durationYears) {
         // Basic validation
         if (amount <= 0 || interestRate < 0 || durationYears <= 0) {
             System.err.println("Invalid loan parameters provided.");
@@ -183,55 +208,216 @@ public class ManagerDB {
         }
 
         try {
-            conn = DatabaseUtil.getConnection();
-            conn.setAutoCommit(false); // Start transaction
+            // Loan row, disbursement and balance update commit together in the ledger writer's batch
+            return LedgerWriter.submit(conn -> {
+                insertLoan(conn, accountNumber, amount, interestRate, durationYears);
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error creating loan: " + e.getMessage());
+            return false;
+        }
+    }
 
-            // 1. Insert into Loan table
-            pstmtLoan = conn.prepareStatement(insertLoanSQL);
+    // Loan row plus disbursement on the caller's connection (also used when approving queued requests)
+    static void insertLoan(Connection conn, String accountNumber, double amount, double interestRate, int durationYears) throws SQLException {
+        String insertLoanSQL = "INSERT INTO Loan (accno, amount, int_rate, date, duration) VALUES (?, ?, ?, CURRENT_DATE, ?)";
+        String insertTransactionSQL = "INSERT INTO Transactions (accno, amount, to_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        // 1. Insert into Loan table
+        try (PreparedStatement pstmtLoan = conn.prepareStatement(insertLoanSQL)) {
             pstmtLoan.setString(1, accountNumber);
             pstmtLoan.setDouble(2, amount);
             pstmtLoan.setDouble(3, interestRate);
             pstmtLoan.setInt(4, durationYears);
             pstmtLoan.executeUpdate();
+        }
 
-            // 2. Insert into Transactions table (money given to customer)
-            pstmtTransaction = conn.prepareStatement(insertTransactionSQL);
+        // 2. Insert into Transactions table (money given to customer)
+        try (PreparedStatement pstmtTransaction = conn.prepareStatement(insertTransactionSQL)) {
             pstmtTransaction.setString(1, accountNumber);
             pstmtTransaction.setDouble(2, amount);
             pstmtTransaction.setString(3, accountNumber); // Money goes to the customer account
             pstmtTransaction.setString(4, "Loan Taken");
             pstmtTransaction.executeUpdate();
+        }
+        BalanceDB.applyDelta(conn, accountNumber, amount);
+    }
 
-            conn.commit();
-            success = true;
+    // --- Fixed Deposit Approval ---
+
+    public static List<FD> getPendingFDs() {
+        return DbMetrics.time("ManagerDB.getPendingFDs", () -> doGetPendingFDs());
+    }
+
+    private static List<FD> doGetPendingFDs() {
+        List<FD> fds = new ArrayList<>();
+        String sql = "SELECT " + FDEngine.FD_COLUMNS + " FROM FD WHERE status = 'Pending' ORDER BY id ASC";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
 
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                fds.add(FDEngine.toFD(rs));
+            }
         } catch (SQLException e) {
-            System.err.println("Error creating loan: " + e.getMessage());
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Loan creation transaction rolled back.");
-                } catch (SQLException ex) {
-                    System.err.println("Error rolling back: " + ex.getMessage());
+            System.err.println("Error getting pending FDs: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return fds;
+    }
+
+    /**
+     * Activates a pending FD at the given annual rate starting today and debits the principal
+     * from the customer's account. Fails if the FD is no longer pending or funds are insufficient.
+     */
+    public static boolean approveFD(int fdId, double interestRate) {
+        return DbMetrics.time("ManagerDB.approveFD", () -> doApproveFD(fdId, interestRate));
+    }
+
+    private static boolean doApproveFD(int fdId, double interestRate) {
+        String fetchSQL = "SELECT accno, amount FROM FD WHERE id = ? AND status = 'Pending'";
+        String updateSQL = "UPDATE FD SET status = 'Active', interest_rate = ?, start_date = ?, accrued_interest = 0, accrued_through = ? " +
+                           "WHERE id = ? AND status = 'Pending'";
+        String insertSQL = "INSERT INTO Transactions (accno, amount, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        if (interestRate < 0) {
+            System.err.println("Invalid FD interest rate provided.");
+            return false;
+        }
+        Optional<FD> pending = CustomerDB.getFDById(fdId);
+        if (pending.isEmpty()) {
+            System.err.println("Cannot approve FD: FD with ID " + fdId + " not found.");
+            return false;
+        }
+        String accountNumber = pending.get().getAccNumber();
+
+        try {
+            // Status change, debit and balance update commit together; the account lock keeps
+            // concurrent debits from spending the same funds
+            return TransferEngine.withAccountLock(accountNumber, () -> LedgerWriter.submit(conn -> {
+                double amount;
+                try (PreparedStatement pstmt = conn.prepareStatement(fetchSQL)) {
+                    pstmt.setInt(1, fdId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            System.err.println("Pending FD with ID " + fdId + " not found.");
+                            return false;
+                        }
+                        amount = rs.getDouble("amount");
+                    }
                 }
-            }
+                if (BalanceDB.getBalance(conn, accountNumber) < amount) {
+                    System.err.println("Cannot approve FD ID " + fdId + ": Insufficient balance in account " + accountNumber);
+                    return false;
+                }
+
+                String today = LocalDate.now().toString();
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSQL)) {
+                    pstmt.setDouble(1, interestRate);
+                    pstmt.setString(2, today);
+                    pstmt.setString(3, today);
+                    pstmt.setInt(4, fdId);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+                    pstmt.setString(1, accountNumber);
+                    pstmt.setDouble(2, amount);
+                    pstmt.setString(3, accountNumber); // Principal leaves the customer's account
+                    pstmt.setString(4, "FD Opened (ID: " + fdId + ")");
+                    pstmt.executeUpdate();
+                }
+                BalanceDB.applyDelta(conn, accountNumber, -amount);
+                return true;
+            }));
+        } catch (SQLException e) {
+            System.err.println("Error approving FD: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean rejectFD(int fdId) {
+        return DbMetrics.time("ManagerDB.rejectFD", () -> doRejectFD(fdId));
+    }
+
+    private static boolean doRejectFD(int fdId) {
+        String sql = "UPDATE FD SET status = 'Rejected' WHERE id = ? AND status = 'Pending'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        boolean success = false;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, fdId);
+            success = pstmt.executeUpdate() > 0; // Only a still-pending FD can be rejected
+        } catch (SQLException e) {
+            System.err.println("Error rejecting FD: " + e.getMessage());
         } finally {
-            DatabaseUtil.closeQuietly(pstmtLoan);
-            DatabaseUtil.closeQuietly(pstmtTransaction);
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    /* ignore */ }
-                DatabaseUtil.closeQuietly(conn);
-            }
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
         }
         return success;
     }
 
+    /**
+     * Opens an already-approved FD directly as Active on the caller's connection and debits the principal.
+     * Used when approving queued requests; the caller must hold the account's TransferEngine lock.
+     * Returns false without writing anything if the balance does not cover the amount.
+     */
+    static boolean openFD(Connection conn, String accountNumber, double amount, double interestRate, int durationYears) throws SQLException {
+        String insertFDSQL = "INSERT INTO FD (accno, created_at, start_date, amount, duration_years, status, interest_rate, accrued_interest, accrued_through) " +
+                             "VALUES (?, CURRENT_TIMESTAMP, ?, ?, ?, 'Active', ?, 0, ?)";
+        String insertSQL = "INSERT INTO Transactions (accno, amount, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        if (BalanceDB.getBalance(conn, accountNumber) < amount) {
+            System.err.println("Cannot open FD: Insufficient balance in account " + accountNumber);
+            return false;
+        }
+
+        String today = LocalDate.now().toString();
+        int fdId;
+        try (PreparedStatement pstmt = conn.prepareStatement(insertFDSQL, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, accountNumber);
+            pstmt.setString(2, today);
+            pstmt.setDouble(3, amount);
+            pstmt.setInt(4, durationYears);
+            pstmt.setDouble(5, interestRate);
+            pstmt.setString(6, today);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Creating FD failed, no ID obtained.");
+                }
+                fdId = keys.getInt(1);
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+            pstmt.setString(1, accountNumber);
+            pstmt.setDouble(2, amount);
+            pstmt.setString(3, accountNumber); // Principal leaves the customer's account
+            pstmt.setString(4, "FD Opened (ID: " + fdId + ")");
+            pstmt.executeUpdate();
+        }
+        BalanceDB.applyDelta(conn, accountNumber, -amount);
+        return true;
+    }
+
     // --- Customer Signup Approval ---
 
     public static List<PartialSignup> getPendingSignups() {
+        return DbMetrics.time("ManagerDB.getPendingSignups", () -> doGetPendingSignups());
+    }
+
+    private static List<PartialSignup> doGetPendingSignups() {
         List<PartialSignup> signups = new ArrayList<>();
         String sql = "SELECT id, status, name, email, address, mobile, Timestamp FROM Partial_Signups WHERE status = 'Pending' ORDER BY id ASC";
         Connection conn = null;
@@ -267,113 +453,279 @@ public class ManagerDB {
     // deposit Transaction
     public static boolean approveSignup(int partialSignupId, String accountNumber, String passwordHash,
             double initialDeposit) {
-        String fetchSignupSQL = "SELECT name, mobile, email, address FROM Partial_Signups WHERE id = ? AND status = 'Pending'";
-        String updateSignupSQL = "UPDATE Partial_Signups SET status = 'Approved' WHERE id = ?";
+        return DbMetrics.time("ManagerDB.approveSignup", () -> doApproveSignup(partialSignupId, accountNumber, passwordHash, initialDeposit));
+    }
+
+    private static boolean doApproveSignup(int partialSignupId, String accountNumber, String passwordHash,
+            double initialDeposit) {
+        List<SignupDecisionResult> results = approveSignups(
+                List.of(new SignupApproval(partialSignupId, accountNumber, passwordHash, initialDeposit)));
+        if (!results.get(0).isSuccess()) {
+            System.err.println("Cannot approve signup ID " + partialSignupId + ": " + results.get(0).getMessage());
+        }
+        return results.get(0).isSuccess();
+    }
+
+    /**
+     * Approves many pending signups in one ledger-writer transaction: one query for the pending rows,
+     * one query for clashes with existing customers (account number, mobile or email), then batched
+     * Customer inserts, opening deposits, balance rows and status updates.
+     * A blank account number is filled from AccountNumberAllocator; the result carries the number used.
+     * Returns one result per approval, in input order. Rows that fail validation are skipped without
+     * affecting the rest; if the batch itself fails, each row is retried on its own.
+     */
+    public static List<SignupDecisionResult> approveSignups(List<SignupApproval> requested) {
+        return DbMetrics.time("ManagerDB.approveSignups", () -> doApproveSignups(requested));
+    }
+
+    private static List<SignupDecisionResult> doApproveSignups(List<SignupApproval> requested) {
+        List<SignupApproval> approvals = new ArrayList<>(requested); // Blank account numbers get replaced below
+        SignupDecisionResult[] results = new SignupDecisionResult[approvals.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        // Basic validation, including duplicates within the batch itself
+        Set<String> batchAccounts = new HashSet<>();
+        Set<Integer> batchSignups = new HashSet<>();
+        for (int i = 0; i < approvals.size(); i++) {
+            SignupApproval a = approvals.get(i);
+            if (a.getAccountNumber() == null || a.getAccountNumber().trim().isEmpty()) {
+                // No number typed by the manager: take the next one from the allocator
+                try {
+                    a = new SignupApproval(a.getSignupId(), AccountNumberAllocator.next(), a.getPasswordHash(), a.getInitialDeposit());
+                    approvals.set(i, a);
+                } catch (SQLException e) {
+                    System.err.println("Error allocating account number: " + e.getMessage());
+                    results[i] = failed(a, "Could not allocate an account number.");
+                    continue;
+                }
+            }
+            if (a.getPasswordHash() == null) {
+                results[i] = failed(a, "Password is required.");
+            } else if (a.getInitialDeposit() < 0) {
+                results[i] = failed(a, "Initial deposit cannot be negative.");
+            } else if (!batchSignups.add(a.getSignupId())) {
+                results[i] = failed(a, "Signup listed more than once.");
+            } else if (!batchAccounts.add(a.getAccountNumber())) {
+                results[i] = failed(a, "Account number '" + a.getAccountNumber() + "' used twice in this batch.");
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        try {
+            LedgerWriter.submit(conn -> {
+                postSignupApprovals(conn, approvals, candidates, results);
+                return null;
+            });
+            for (int i : candidates) {
+                if (results[i].isSuccess()) {
+                    CustomerCache.invalidate(results[i].getAccountNumber()); // Drop any cached "no such account"
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error approving signups in bulk: " + e.getMessage());
+            if (candidates.size() == 1) {
+                int i = candidates.get(0);
+                results[i] = failed(approvals.get(i), "Database error: " + e.getMessage());
+            } else {
+                // Typically a UNIQUE clash between rows; redo row by row so only the offending rows fail
+                for (int i : candidates) {
+                    results[i] = approveSignups(List.of(approvals.get(i))).get(0);
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Runs on the ledger writer's connection; fills results for every candidate row
+    private static void postSignupApprovals(Connection conn, List<SignupApproval> approvals, List<Integer> candidates,
+            SignupDecisionResult[] results) throws SQLException {
         String insertCustomerSQL = "INSERT INTO Customer (name, mobile, email, accountno, password) VALUES (?, ?, ?, ?, ?)";
         String insertDepositSQL = "INSERT INTO Transactions (accno, amount, to_acc, type, Timestamp) VALUES (?, ?, ?, 'Deposit', CURRENT_TIMESTAMP)";
-        Connection conn = null;
-        PreparedStatement pstmtFetch = null;
-        PreparedStatement pstmtUpdate = null;
-        PreparedStatement pstmtInsertCust = null;
-        PreparedStatement pstmtInsertDeposit = null;
-        ResultSet rsFetch = null;
-        boolean success = false;
+        String balanceSQL = "INSERT INTO Account_Balance (accno, balance) VALUES (?, ?) " +
+                            "ON CONFLICT(accno) DO UPDATE SET balance = balance + excluded.balance";
+        String updateSignupSQL = "UPDATE Partial_Signups SET status = 'Approved' WHERE id = ? AND status = 'Pending'";
+
+        // 1. Pending signups for all candidates
+        Map<Integer, String[]> pending = new HashMap<>(); // id -> {name, mobile, email}
+        String fetchSQL = "SELECT id, name, mobile, email FROM Partial_Signups WHERE status = 'Pending' AND id IN (" + placeholders(candidates.size()) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(fetchSQL)) {
+            for (int k = 0; k < candidates.size(); k++) {
+                pstmt.setInt(k + 1, approvals.get(candidates.get(k)).getSignupId());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    pending.put(rs.getInt("id"), new String[] { rs.getString("name"), rs.getString("mobile"), rs.getString("email") });
+                }
+            }
+        }
 
-        // Basic validation
-        if (initialDeposit < 0) {
-            System.err.println("Initial deposit cannot be negative.");
-            return false;
+        // 2. One query for clashes with existing customers on any unique column
+        List<String> accounts = new ArrayList<>();
+        List<String> mobiles = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (int i : candidates) {
+            String[] signup = pending.get(approvals.get(i).getSignupId());
+            accounts.add(approvals.get(i).getAccountNumber());
+            if (signup != null) {
+                mobiles.add(signup[1]);
+                if (signup[2] != null) {
+                    emails.add(signup[2]);
+                }
+            }
         }
-        // Check if account number already exists in Customer table
-        if (CustomerDB.getCustomerByAccountNumber(accountNumber).isPresent()) {
-            System.err.println("Cannot approve signup: Account number '" + accountNumber + "' already exists.");
-            return false;
+        Set<String> takenAccounts = new HashSet<>();
+        Set<String> takenMobiles = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        String clashSQL = "SELECT accountno, mobile, email FROM Customer WHERE accountno IN (" + placeholders(accounts.size()) + ")" +
+                          (mobiles.isEmpty() ? "" : " OR mobile IN (" + placeholders(mobiles.size()) + ")") +
+                          (emails.isEmpty() ? "" : " OR email IN (" + placeholders(emails.size()) + ")");
+        try (PreparedStatement pstmt = conn.prepareStatement(clashSQL)) {
+            int p = 1;
+            for (String v : accounts) pstmt.setString(p++, v);
+            for (String v : mobiles) pstmt.setString(p++, v);
+            for (String v : emails) pstmt.setString(p++, v);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    takenAccounts.add(rs.getString("accountno"));
+                    takenMobiles.add(rs.getString("mobile"));
+                    takenEmails.add(rs.getString("email"));
+                }
+            }
         }
 
-        try {
-            conn = DatabaseUtil.getConnection();
-            conn.setAutoCommit(false); // Start transaction
+        // 3. Batch the writes for every row that passed
+        int approved = 0;
+        try (PreparedStatement pstmtCustomer = conn.prepareStatement(insertCustomerSQL);
+             PreparedStatement pstmtDeposit = conn.prepareStatement(insertDepositSQL);
+             PreparedStatement pstmtBalance = conn.prepareStatement(balanceSQL);
+             PreparedStatement pstmtStatus = conn.prepareStatement(updateSignupSQL)) {
+            int deposits = 0;
+            for (int i : candidates) {
+                SignupApproval a = approvals.get(i);
+                String[] signup = pending.get(a.getSignupId());
+                if (signup == null) {
+                    results[i] = failed(a, "Pending signup not found; it might have been already processed.");
+                    continue;
+                }
+                if (takenAccounts.contains(a.getAccountNumber())) {
+                    results[i] = failed(a, "Account number '" + a.getAccountNumber() + "' already exists.");
+                    continue;
+                }
+                if (takenMobiles.contains(signup[1]) || (signup[2] != null && takenEmails.contains(signup[2]))) {
+                    results[i] = failed(a, "A customer with this mobile or email already exists.");
+                    continue;
+                }
+
+                pstmtCustomer.setString(1, signup[0]);
+                pstmtCustomer.setString(2, signup[1]);
+                pstmtCustomer.setString(3, signup[2]);
+                pstmtCustomer.setString(4, a.getAccountNumber()); // Manager assigned account number
+                pstmtCustomer.setString(5, a.getPasswordHash()); // Manager set password (hashed)
+                pstmtCustomer.addBatch();
+
+                if (a.getInitialDeposit() > 0) {
+                    pstmtDeposit.setString(1, a.getAccountNumber());
+                    pstmtDeposit.setDouble(2, a.getInitialDeposit());
+                    pstmtDeposit.setString(3, a.getAccountNumber()); // Money goes to this new account
+                    pstmtDeposit.addBatch();
+                    deposits++;
+                }
+                // Open the account's balance row (with the deposit, if any)
+                pstmtBalance.setString(1, a.getAccountNumber());
+                pstmtBalance.setDouble(2, a.getInitialDeposit());
+                pstmtBalance.addBatch();
 
-            // 1. Fetch details from Partial_Signups
-            pstmtFetch = conn.prepareStatement(fetchSignupSQL);
-            pstmtFetch.setInt(1, partialSignupId);
-            rsFetch = pstmtFetch.executeQuery();
+                pstmtStatus.setInt(1, a.getSignupId());
+                pstmtStatus.addBatch();
 
-            if (!rsFetch.next()) {
-                System.err.println("Pending signup with ID " + partialSignupId + " not found.");
-                conn.rollback(); // Rollback before returning
-                return false;
+                results[i] = new SignupDecisionResult(a.getSignupId(), a.getAccountNumber(), true, "Approved.");
+                approved++;
             }
-            String name = rsFetch.getString("name");
-            String mobile = rsFetch.getString("mobile");
-            String email = rsFetch.getString("email");
-            String address = rsFetch.getString("address"); // Assuming address is needed, else remove. Schema doesn't
-                                                           // list address in Customer table. Let's assume address IS
-                                                           // needed for Customer table based on model. If not, remove
-                                                           // address handling here and in Customer table/model.
-            // Self-correction: Original Customer schema was id, name, mobile, email,
-            // accountno, password. Address seems to come from Partial_Signups. Let's assume
-            // Customer table *should* have address. If not, the INSERT SQL and Customer
-            // model need adjusting. Adjusting INSERT SQL assuming address IS NOT in
-            // Customer table.
-            // String insertCustomerSQL = "INSERT INTO Customer (name, mobile, email,
-            // accountno, password) VALUES (?, ?, ?, ?, ?)"; // Corrected based on schema
-
-            // 2. Insert into Customer table
-            pstmtInsertCust = conn.prepareStatement(insertCustomerSQL);
-            pstmtInsertCust.setString(1, name);
-            pstmtInsertCust.setString(2, mobile);
-            pstmtInsertCust.setString(3, email);
-            pstmtInsertCust.setString(4, accountNumber); // Manager assigned account number
-            pstmtInsertCust.setString(5, passwordHash); // Manager set password (hashed)
-            pstmtInsertCust.executeUpdate();
-
-            // 3. Insert initial deposit transaction if amount > 0
-            if (initialDeposit > 0) {
-                pstmtInsertDeposit = conn.prepareStatement(insertDepositSQL);
-                pstmtInsertDeposit.setString(1, accountNumber);
-                pstmtInsertDeposit.setDouble(2, initialDeposit);
-                pstmtInsertDeposit.setString(3, accountNumber); // Money goes to this new account
-                pstmtInsertDeposit.executeUpdate();
+            if (approved > 0) {
+                pstmtCustomer.executeBatch();
+                if (deposits > 0) {
+                    pstmtDeposit.executeBatch();
+                }
+                pstmtBalance.executeBatch();
+                pstmtStatus.executeBatch();
             }
+        }
+    }
 
-            // 4. Update Partial_Signups status to 'Approved'
-            pstmtUpdate = conn.prepareStatement(updateSignupSQL);
-            pstmtUpdate.setInt(1, partialSignupId);
-            pstmtUpdate.executeUpdate();
+    /**
+     * Rejects many pending signups with one batched update. Returns one result per id, in input order.
+     */
+    public static List<SignupDecisionResult> rejectSignups(List<Integer> partialSignupIds) {
+        return DbMetrics.time("ManagerDB.rejectSignups", () -> doRejectSignups(partialSignupIds));
+    }
 
-            conn.commit(); // Commit transaction
-            success = true;
+    private static List<SignupDecisionResult> doRejectSignups(List<Integer> partialSignupIds) {
+        String sql = "UPDATE Partial_Signups SET status = 'Rejected' WHERE id = ? AND status = 'Pending'";
+        List<SignupDecisionResult> results = new ArrayList<>(partialSignupIds.size());
+        if (partialSignupIds.isEmpty()) {
+            return results;
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
 
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            pstmt = conn.prepareStatement(sql);
+            for (int id : partialSignupIds) {
+                pstmt.setInt(1, id);
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            conn.commit();
+            for (int k = 0; k < counts.length; k++) {
+                boolean rejected = counts[k] > 0; // Only a still-pending signup can be rejected
+                results.add(new SignupDecisionResult(partialSignupIds.get(k), null, rejected,
+                        rejected ? "Rejected." : "Pending signup not found; it might have been already processed."));
+            }
         } catch (SQLException e) {
-            System.err.println("Error approving signup: " + e.getMessage());
+            System.err.println("Error rejecting signups in bulk: " + e.getMessage());
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("Signup approval transaction rolled back.");
                 } catch (SQLException ex) {
-                    System.err.println("Error rolling back: " + ex.getMessage());
+                    System.err.println("Error rolling back bulk rejection: " + ex.getMessage());
                 }
             }
+            results.clear();
+            for (int id : partialSignupIds) {
+                results.add(new SignupDecisionResult(id, null, false, "Database error: " + e.getMessage()));
+            }
         } finally {
-            DatabaseUtil.closeQuietly(rsFetch);
-            DatabaseUtil.closeQuietly(pstmtFetch);
-            DatabaseUtil.closeQuietly(pstmtUpdate);
-            DatabaseUtil.closeQuietly(pstmtInsertCust);
-            DatabaseUtil.closeQuietly(pstmtInsertDeposit);
+            DatabaseUtil.closeQuietly(pstmt);
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    /* ignore */ }
+                } catch (SQLException e) { /* ignore */ }
                 DatabaseUtil.closeQuietly(conn);
             }
         }
-        return success;
+        return results;
+    }
+
+    private static SignupDecisionResult failed(SignupApproval approval, String message) {
+        return new SignupDecisionResult(approval.getSignupId(), approval.getAccountNumber(), false, message);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     // Reject a signup: Update Partial_Signups status
     public static boolean rejectSignup(int partialSignupId) {
+        return DbMetrics.time("ManagerDB.rejectSignup", () -> doRejectSignup(partialSignupId));
+    }
+
+    private static boolean doRejectSignup(int partialSignupId) {
         String sql = "UPDATE Partial_Signups SET status = 'Rejected' WHERE id = ? AND status = 'Pending'";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -397,6 +749,10 @@ public class ManagerDB {
     // --- Grievance Management ---
 
     public static List<Grievance> getPendingGrievances() {
+        return DbMetrics.time("ManagerDB.getPendingGrievances", () -> doGetPendingGrievances());
+    }
+
+    private static List<Grievance> doGetPendingGrievances() {
         List<Grievance> grievances = new ArrayList<>();
         // Fetch grievances with status 'Pending' or 'In Process' (or just 'Pending' as
         // per spec?)
@@ -431,6 +787,10 @@ public class ManagerDB {
     }
 
     public static boolean updateGrievance(int grievanceId, String newStatus, String remarks) {
+        return DbMetrics.time("ManagerDB.updateGrievance", () -> doUpdateGrievance(grievanceId, newStatus, remarks));
+    }
+
+    private static boolean doUpdateGrievance(int grievanceId, String newStatus, String remarks) {
         String sql = "UPDATE Grievance SET status = ?, remarks = ? WHERE id = ?";
         Connection conn = null;
         PreparedStatement pstmt = null;
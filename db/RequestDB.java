@@ -0,0 +1,307 @@
+package db;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import model.DetailChangeRequestData;
+import model.FDRequestData;
+import model.LoanRequestData;
+import model.Request;
+import model.RequestPage;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Approval queue over the Request table.
+ * Staff enqueue loan, FD and customer detail-change requests; managers list them by status and type
+ * (keyset pagination on the (status, type, id) indexes) and approve or reject them. Approving applies
+ * the request's effect and marks it Approved in one ledger-writer transaction.
+ * data_json is parsed into the type's payload class once, when the row is read, with a shared Gson.
+ */
+public class RequestDB {
+
+    public static final String TYPE_LOAN = "Loan";
+    public static final String TYPE_FD = "FD";
+    public static final String TYPE_DETAIL_CHANGE = "DetailChange";
+
+    // Gson is thread-safe; building one per call re-does its reflection setup every time
+    private static final Gson GSON = new Gson();
+
+    private static final String COLUMNS = "id, type, data_json, status, remarks, related_to_acc_no, created_by_staff_no, approved_by_manager_no, created_at";
+
+    // --- Staff: enqueue ---
+
+    public static boolean enqueueLoanRequest(String accountNumber, String staffMobile, LoanRequestData data) {
+        if (data.getAmount() <= 0 || data.getInterestRate() < 0 || data.getDurationYears() <= 0) {
+            System.err.println("Invalid loan request parameters provided.");
+            return false;
+        }
+        return enqueue(TYPE_LOAN, accountNumber, staffMobile, data);
+    }
+
+    public static boolean enqueueFDRequest(String accountNumber, String staffMobile, FDRequestData data) {
+        if (data.getAmount() <= 0 || data.getInterestRate() < 0 || data.getDurationYears() <= 0) {
+            System.err.println("Invalid FD request parameters provided.");
+            return false;
+        }
+        return enqueue(TYPE_FD, accountNumber, staffMobile, data);
+    }
+
+    public static boolean enqueueDetailChangeRequest(String accountNumber, String staffMobile, DetailChangeRequestData data) {
+        if (data.getName() == null && data.getEmail() == null && data.getMobile() == null) {
+            System.err.println("Detail change request has nothing to change.");
+            return false;
+        }
+        return enqueue(TYPE_DETAIL_CHANGE, accountNumber, staffMobile, data);
+    }
+
+    private static boolean enqueue(String type, String accountNumber, String staffMobile, Object payload) {
+        String sql = "INSERT INTO Request (type, data_json, status, related_to_acc_no, created_by_staff_no, created_at) " +
+                     "VALUES (?, ?, 'Pending', ?, ?, CURRENT_TIMESTAMP)";
+
+        if (CustomerDB.getCustomerByAccountNumber(accountNumber).isEmpty()) {
+            System.err.println("Cannot enqueue " + type + " request: Customer account " + accountNumber + " not found.");
+            return false;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        boolean success = false;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, type);
+            pstmt.setString(2, GSON.toJson(payload));
+            pstmt.setString(3, accountNumber);
+            pstmt.setString(4, staffMobile);
+            success = pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error enqueuing " + type + " request: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return success;
+    }
+
+    // --- Manager: list ---
+
+    /**
+     * One page of requests with the given status, oldest first, optionally limited to one type.
+     * afterId is the previous page's nextCursor (null for the first page).
+     */
+    public static RequestPage getRequestsPage(String status, String type, Integer afterId, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM Request WHERE status = ?");
+        if (type != null) {
+            sql.append(" AND type = ?");
+        }
+        if (afterId != null) {
+            sql.append(" AND id > ?");
+        }
+        sql.append(" ORDER BY id ASC LIMIT ?");
+
+        List<Request> requests = new ArrayList<>();
+        Integer nextCursor = null;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
+            int i = 1;
+            pstmt.setString(i++, status);
+            if (type != null) {
+                pstmt.setString(i++, type);
+            }
+            if (afterId != null) {
+                pstmt.setInt(i++, afterId);
+            }
+            pstmt.setInt(i, pageSize + 1); // One extra row tells us whether there is a next page
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                if (requests.size() == pageSize) {
+                    nextCursor = requests.get(requests.size() - 1).getId();
+                    break;
+                }
+                requests.add(toRequest(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting requests: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return new RequestPage(requests, nextCursor);
+    }
+
+    public static Optional<Request> getRequestById(int requestId) {
+        String sql = "SELECT " + COLUMNS + " FROM Request WHERE id = ? LIMIT 1";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, requestId);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(toRequest(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting request by ID: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return Optional.empty();
+    }
+
+    // --- Manager: decide ---
+
+    /**
+     * Applies a pending request and marks it Approved, atomically.
+     * Fails (and leaves the request Pending) if it was already decided or its effect cannot be applied,
+     * e.g. an FD request whose account no longer has the funds.
+     */
+    public static boolean approveRequest(int requestId, String managerMobile, String remarks) {
+        String claimSQL = "UPDATE Request SET status = 'Approved', approved_by_manager_no = ?, remarks = ?, decided_at = CURRENT_TIMESTAMP " +
+                          "WHERE id = ? AND status = 'Pending'";
+
+        Optional<Request> found = getRequestById(requestId);
+        if (found.isEmpty() || !"Pending".equals(found.get().getStatus())) {
+            System.err.println("Pending request with ID " + requestId + " not found.");
+            return false;
+        }
+        Request request = found.get();
+        if (request.getPayload() == null) {
+            System.err.println("Request ID " + requestId + " has an unreadable payload.");
+            return false;
+        }
+        String accountNumber = request.getRelatedToAccNo();
+
+        try {
+            // The account lock keeps an FD debit from racing other debits on the same account
+            boolean approved = TransferEngine.withAccountLock(accountNumber, () -> LedgerWriter.submit(conn -> {
+                if (!applyEffect(conn, request)) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(claimSQL)) {
+                    pstmt.setString(1, managerMobile);
+                    pstmt.setString(2, remarks);
+                    pstmt.setInt(3, requestId);
+                    if (pstmt.executeUpdate() == 0) {
+                        // Decided by someone else since we read it: undo the effect
+                        throw new SQLException("Request ID " + requestId + " was already processed.");
+                    }
+                }
+                return true;
+            }));
+            if (approved && TYPE_DETAIL_CHANGE.equals(request.getType())) {
+                CustomerCache.invalidate(accountNumber);
+            }
+            return approved;
+        } catch (SQLException e) {
+            System.err.println("Error approving request: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean rejectRequest(int requestId, String managerMobile, String remarks) {
+        String sql = "UPDATE Request SET status = 'Rejected', approved_by_manager_no = ?, remarks = ?, decided_at = CURRENT_TIMESTAMP " +
+                     "WHERE id = ? AND status = 'Pending'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        boolean success = false;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, managerMobile);
+            pstmt.setString(2, remarks);
+            pstmt.setInt(3, requestId);
+            success = pstmt.executeUpdate() > 0; // Only a still-pending request can be rejected
+        } catch (SQLException e) {
+            System.err.println("Error rejecting request: " + e.getMessage());
+        } finally {
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return success;
+    }
+
+    // --- Internals ---
+
+    // Runs on the ledger writer's connection; returns false if the effect cannot be applied
+    private static boolean applyEffect(Connection conn, Request request) throws SQLException {
+        String accountNumber = request.getRelatedToAccNo();
+        Object payload = request.getPayload();
+
+        if (payload instanceof LoanRequestData) {
+            LoanRequestData loan = (LoanRequestData) payload;
+            ManagerDB.insertLoan(conn, accountNumber, loan.getAmount(), loan.getInterestRate(), loan.getDurationYears());
+            return true;
+        }
+        if (payload instanceof FDRequestData) {
+            FDRequestData fd = (FDRequestData) payload;
+            return ManagerDB.openFD(conn, accountNumber, fd.getAmount(), fd.getInterestRate(), fd.getDurationYears());
+        }
+        if (payload instanceof DetailChangeRequestData) {
+            DetailChangeRequestData change = (DetailChangeRequestData) payload;
+            String sql = "UPDATE Customer SET name = COALESCE(?, name), email = COALESCE(?, email), mobile = COALESCE(?, mobile) WHERE accountno = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, change.getName());
+                pstmt.setString(2, change.getEmail());
+                pstmt.setString(3, change.getMobile());
+                pstmt.setString(4, accountNumber);
+                return pstmt.executeUpdate() > 0;
+            }
+        }
+        System.err.println("Unknown request type: " + request.getType());
+        return false;
+    }
+
+    private static Request toRequest(ResultSet rs) throws SQLException {
+        String type = rs.getString("type");
+        String dataJson = rs.getString("data_json");
+        return new Request(
+                rs.getInt("id"),
+                type,
+                dataJson,
+                rs.getString("status"),
+                rs.getString("remarks"),
+                rs.getString("related_to_acc_no"),
+                rs.getString("created_by_staff_no"),
+                rs.getString("approved_by_manager_no"),
+                rs.getString("created_at"),
+                parsePayload(type, dataJson));
+    }
+
+    // Typed payload for the request type, or null if the type is unknown or the JSON is malformed
+    private static Object parsePayload(String type, String dataJson) {
+        Class<?> payloadClass;
+        if (TYPE_LOAN.equals(type)) {
+            payloadClass = LoanRequestData.class;
+        } else if (TYPE_FD.equals(type)) {
+            payloadClass = FDRequestData.class;
+        } else if (TYPE_DETAIL_CHANGE.equals(type)) {
+            payloadClass = DetailChangeRequestData.class;
+        } else {
+            return null;
+        }
+        try {
+            return GSON.fromJson(dataJson, payloadClass);
+        } catch (JsonParseException e) {
+            System.err.println("Warn: Unreadable " + type + " request payload: " + e.getMessage());
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package db;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Versioned schema migrations, applied once each at startup (see DatabaseUtil).
+ * Applied versions are recorded in Schema_Version. To change the schema, append a new
+ * Migration with the next version number; never edit one that has already shipped.
+ */
+public class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Materialized account balances",
+                    "CREATE TABLE IF NOT EXISTS Account_Balance (" +
+                    "  accno TEXT PRIMARY KEY," +
+                    "  balance REAL NOT NULL DEFAULT 0" +
+                    ")",
+                    "INSERT OR IGNORE INTO Account_Balance (accno, balance) SELECT accountno, 0 FROM Customer",
+                    "INSERT INTO Account_Balance (accno, balance) " +
+                    "SELECT accno, " + BalanceDB.LEDGER_BALANCE_SQL + " FROM Transactions WHERE true GROUP BY accno " +
+                    "ON CONFLICT(accno) DO UPDATE SET balance = excluded.balance"),
+
+            new Migration(2, "Secondary indexes for per-account and status lookups",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_accno ON Transactions(accno)",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_to_acc ON Transactions(to_acc)",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_from_acc ON Transactions(from_acc)",
+                    "CREATE INDEX IF NOT EXISTS idx_loan_accno ON Loan(accno)",
+                    "CREATE INDEX IF NOT EXISTS idx_grievance_accno_status ON Grievance(accno, status)",
+                    "CREATE INDEX IF NOT EXISTS idx_fd_accno_status ON FD(accno, status)",
+                    "CREATE INDEX IF NOT EXISTS idx_partial_signups_status ON Partial_Signups(status)"),
+
+            new Migration(3, "Loan valuation snapshots",
+                    "CREATE TABLE IF NOT EXISTS Loan_Valuation (" +
+                    "  loan_id INTEGER NOT NULL," +
+                    "  valuation_date TEXT NOT NULL," +       // YYYY-MM-DD
+                    "  accno TEXT NOT NULL," +
+                    "  principal REAL NOT NULL," +
+                    "  payoff_amount REAL NOT NULL," +
+                    "  overdue_half_years INTEGER NOT NULL," +
+                    "  effective_rate REAL NOT NULL," +       // Annual rate in percent, penalty included
+                    "  PRIMARY KEY (valuation_date, loan_id)" +
+                    ")"),
+
+            new Migration(4, "Fixed deposit interest accrual",
+                    "ALTER TABLE FD ADD COLUMN accrued_interest REAL NOT NULL DEFAULT 0",
+                    "ALTER TABLE FD ADD COLUMN accrued_through TEXT", // Date accrued_interest was computed for
+                    "ALTER TABLE FD ADD COLUMN closed_at TEXT",
+                    "CREATE INDEX IF NOT EXISTS idx_fd_status ON FD(status)"),
+
+            new Migration(5, "Approval request queue",
+                    "CREATE TABLE IF NOT EXISTS Request (" +
+                    "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "  type TEXT NOT NULL," +                 // 'Loan', 'FD', 'DetailChange'
+                    "  data_json TEXT NOT NULL," +            // Payload, shape depends on type
+                    "  status TEXT NOT NULL DEFAULT 'Pending'," +
+                    "  remarks TEXT," +
+                    "  related_to_acc_no TEXT," +
+                    "  created_by_staff_no TEXT," +           // Staff mobile
+                    "  approved_by_manager_no TEXT," +        // Manager mobile, also set on rejection
+                    "  created_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+                    "  decided_at TEXT" +
+                    ")",
+                    // Inbox listings: by status, optionally by type, in id order
+                    "CREATE INDEX IF NOT EXISTS idx_request_status_type_id ON Request(status, type, id)",
+                    "CREATE INDEX IF NOT EXISTS idx_request_status_id ON Request(status, id)"),
+
+            new Migration(6, "Account number blocks",
+                    "CREATE TABLE IF NOT EXISTS Account_Number_Block (" +
+                    "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "  first_serial INTEGER NOT NULL," +
+                    "  last_serial INTEGER NOT NULL," +
+                    "  reserved_at TEXT DEFAULT CURRENT_TIMESTAMP" +
+                    ")",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_account_number_block_last ON Account_Number_Block(last_serial)"),
+
+            new Migration(7, "Ledger activity roll-ups",
+                    "CREATE TABLE IF NOT EXISTS Txn_Hourly_Stats (" +
+                    "  hour TEXT NOT NULL," +                 // YYYY-MM-DD HH (UTC, as stored in Transactions)
+                    "  category TEXT NOT NULL," +
+                    "  txn_count INTEGER NOT NULL," +
+                    "  total_amount REAL NOT NULL," +
+                    "  PRIMARY KEY (hour, category)" +
+                    ")",
+                    "CREATE TABLE IF NOT EXISTS Txn_Daily_Stats (" +
+                    "  day TEXT NOT NULL," +                  // YYYY-MM-DD
+                    "  category TEXT NOT NULL," +
+                    "  txn_count INTEGER NOT NULL," +
+                    "  total_amount REAL NOT NULL," +
+                    "  PRIMARY KEY (day, category)" +
+                    ")",
+                    "CREATE TABLE IF NOT EXISTS Analytics_Rollup_State (" +
+                    "  name TEXT PRIMARY KEY," +
+                    "  last_txn_id INTEGER NOT NULL," +       // Highest Transactions.id already counted
+                    "  updated_at TEXT" +
+                    ")",
+                    "INSERT OR IGNORE INTO Analytics_Rollup_State (name, last_txn_id) VALUES ('transactions', 0)",
+                    "CREATE INDEX IF NOT EXISTS idx_grievance_status ON Grievance(status)"),
+
+            // Earlier builds ran ANALYZE in migration 2, on whatever rows the database had at the time (three, for
+            // the shipped file). SQLite never refreshes those statistics, and once the ledger grows they steer the
+            // planner into full scans, so drop them.
+            new Migration(8, "Drop stale planner statistics",
+                    "DROP TABLE IF EXISTS sqlite_stat1")
+    );
+
+    /**
+     * Applies every migration newer than the recorded schema version, each in its own transaction.
+     */
+    public static void migrate(Connection conn) throws SQLException {
+        String createVersionTableSQL = "CREATE TABLE IF NOT EXISTS Schema_Version (" +
+                                       "  version INTEGER PRIMARY KEY," +
+                                       "  description TEXT NOT NULL," +
+                                       "  applied_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+                                       "  duration_ms INTEGER NOT NULL" +
+                                       ")";
+        String recordSQL = "INSERT INTO Schema_Version (version, description, duration_ms) VALUES (?, ?, ?)";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(createVersionTableSQL);
+        }
+        int current = getCurrentVersion(conn);
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                long start = System.currentTimeMillis();
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement();
+                     PreparedStatement record = conn.prepareStatement(recordSQL)) {
+                    for (String sql : migration.statements) {
+                        stmt.execute(sql);
+                    }
+                    long elapsed = System.currentTimeMillis() - start;
+                    record.setInt(1, migration.version);
+                    record.setString(2, migration.description);
+                    record.setLong(3, elapsed);
+                    record.executeUpdate();
+                    conn.commit();
+                    System.out.println("Applied schema migration " + migration.version + " (" + migration.description
+                            + ") in " + elapsed + " ms.");
+                } catch (SQLException e) {
+                    conn.rollback();
+                    System.err.println("Schema migration " + migration.version + " failed: " + e.getMessage());
+                    throw e;
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM Schema_Version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static class Migration {
+        final int version;
+        final String description;
+        final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
\ No newline at end of file
@@ -7,14 +7,15 @@ import model.Staff;
 import java.sql.*;
 import java.util.Optional;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-
 public class StaffDB {
 
     // --- Staff Authentication & Details ---
 
     public static Optional<Staff> validateStaffLogin(String mobile, String passwordHash) {
+        return DbMetrics.time("StaffDB.validateStaffLogin", () -> doValidateStaffLogin(mobile, passwordHash));
+    }
+
+    private static Optional<Staff> doValidateStaffLogin(String mobile, String passwordHash) {
         String sql = "SELECT id, name, mobile, role, password FROM Staff WHERE mobile = ? AND password = ? AND role = 'STAFF' LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -47,6 +48,10 @@ public class StaffDB {
     }
 
      public static Optional<Staff> getStaffByMobile(String mobile) {
+         return DbMetrics.time("StaffDB.getStaffByMobile", () -> doGetStaffByMobile(mobile));
+     }
+
+     private static Optional<Staff> doGetStaffByMobile(String mobile) {
         String sql = "SELECT id, name, mobile, role, password FROM Staff WHERE mobile = ? AND role = 'STAFF' LIMIT 1";
          Connection conn = null;
         PreparedStatement pstmt = null;
@@ -79,6 +84,10 @@ public class StaffDB {
 
       // Check if any staff (Staff or Manager) exists with this mobile
      public static boolean staffExistsByMobile(String mobile) {
+         return DbMetrics.time("StaffDB.staffExistsByMobile", () -> doStaffExistsByMobile(mobile));
+     }
+
+     private static boolean doStaffExistsByMobile(String mobile) {
         String sql = "SELECT 1 FROM Staff WHERE mobile = ? LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -103,6 +112,10 @@ public class StaffDB {
 
 
     public static boolean updateStaffPassword(String mobile, String newPasswordHash) {
+        return DbMetrics.time("StaffDB.updateStaffPassword", () -> doUpdateStaffPassword(mobile, newPasswordHash));
+    }
+
+    private static boolean doUpdateStaffPassword(String mobile, String newPasswordHash) {
         String sql = "UPDATE Staff SET password = ? WHERE mobile = ? AND role = 'STAFF'";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -128,6 +141,10 @@ public class StaffDB {
 
      // Check if a customer account exists with the given mobile or email.
     public static boolean customerExistsByMobileOrEmail(String mobile, String email) {
+        return DbMetrics.time("StaffDB.customerExistsByMobileOrEmail", () -> doCustomerExistsByMobileOrEmail(mobile, email));
+    }
+
+    private static boolean doCustomerExistsByMobileOrEmail(String mobile, String email) {
         String sql = "SELECT 1 FROM Customer WHERE mobile = ? OR email = ? LIMIT 1";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -152,6 +169,10 @@ public class StaffDB {
 
      // Create a partial signup request
     public static boolean createPartialSignup(String name, String mobile, String email, String address) {
+        return DbMetrics.time("StaffDB.createPartialSignup", () -> doCreatePartialSignup(name, mobile, email, address));
+    }
+
+    private static boolean doCreatePartialSignup(String name, String mobile, String email, String address) {
         String sql = "INSERT INTO Partial_Signups (status, name, email, address, mobile, Timestamp) VALUES ('Pending', ?, ?, ?, ?, CURRENT_TIMESTAMP)";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -179,16 +200,27 @@ public class StaffDB {
     }
 
 
-    // Deposit or Withdraw
+    // Deposit or Withdraw. Runs under the account's TransferEngine lock so a withdrawal's
+    // balance check cannot race with a concurrent transfer or repayment.
     public static boolean performDepositWithdrawal(String accountNumber, double amount, boolean isDeposit) {
+        return DbMetrics.time("StaffDB.performDepositWithdrawal", () -> doPerformDepositWithdrawal(accountNumber, amount, isDeposit));
+    }
+
+    private static boolean doPerformDepositWithdrawal(String accountNumber, double amount, boolean isDeposit) {
+        try {
+            return TransferEngine.withAccountLock(accountNumber, () -> recordDepositWithdrawal(accountNumber, amount, isDeposit));
+        } catch (SQLException e) {
+            System.err.println("Error performing " + (isDeposit ? "Deposit" : "Withdrawal") + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean recordDepositWithdrawal(String accountNumber, double amount, boolean isDeposit) throws SQLException {
         String type = isDeposit ? "Deposit" : "Withdrawal";
         String toAcc = isDeposit ? accountNumber : null;
         String fromAcc = isDeposit ? null : accountNumber;
 
         String sqlInsert = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
 
         // Ensure amount is positive
         if (amount <= 0) {
@@ -202,39 +234,34 @@ public class StaffDB {
              return false;
         }
 
-        // If withdrawal, check balance (using the balance calculation method)
-        if (!isDeposit) {
-            double currentBalance = CustomerDB.getCustomerBalance(accountNumber);
-            if (currentBalance < amount) {
-                 System.err.println("Cannot perform withdrawal: Insufficient balance in account " + accountNumber);
-                 return false;
+        // Ledger insert and balance update commit together in the ledger writer's batch
+        return LedgerWriter.submit(conn -> {
+            // If withdrawal, check balance inside the transaction
+            if (!isDeposit && BalanceDB.getBalance(conn, accountNumber) < amount) {
+                System.err.println("Cannot perform withdrawal: Insufficient balance in account " + accountNumber);
+                return false;
             }
-        }
-
-        try {
-            conn = DatabaseUtil.getConnection();
-            // Note: No transaction block needed here as only one insert is happening.
-            pstmt = conn.prepareStatement(sqlInsert);
-            pstmt.setString(1, accountNumber); // The account affected
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, toAcc);
-            pstmt.setString(4, fromAcc);
-            pstmt.setString(5, type);
-            int rowsAffected = pstmt.executeUpdate();
-            success = rowsAffected > 0;
 
-        } catch (SQLException e) {
-            System.err.println("Error performing " + type + ": " + e.getMessage());
-        } finally {
-            DatabaseUtil.closeQuietly(pstmt);
-            DatabaseUtil.closeQuietly(conn);
-        }
-        return success;
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsert)) {
+                pstmt.setString(1, accountNumber); // The account affected
+                pstmt.setDouble(2, amount);
+                pstmt.setString(3, toAcc);
+                pstmt.setString(4, fromAcc);
+                pstmt.setString(5, type);
+                pstmt.executeUpdate();
+            }
+            BalanceDB.applyDelta(conn, accountNumber, isDeposit ? amount : -amount);
+            return true;
+        });
     }
 
 
     // Update Customer Email
     public static boolean updateCustomerEmail(String accountNumber, String newEmail) {
+        return DbMetrics.time("StaffDB.updateCustomerEmail", () -> doUpdateCustomerEmail(accountNumber, newEmail));
+    }
+
+    private static boolean doUpdateCustomerEmail(String accountNumber, String newEmail) {
         String sql = "UPDATE Customer SET email = ? WHERE accountno = ?";
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -252,11 +279,16 @@ public class StaffDB {
             DatabaseUtil.closeQuietly(pstmt);
             DatabaseUtil.closeQuietly(conn);
         }
+        CustomerCache.invalidate(accountNumber);
         return success;
     }
 
     // Update Customer Address
     public static boolean updateCustomerAddress(String accountNumber, String newAddress) {
+        return DbMetrics.time("StaffDB.updateCustomerAddress", () -> doUpdateCustomerAddress(accountNumber, newAddress));
+    }
+
+    private static boolean doUpdateCustomerAddress(String accountNumber, String newAddress) {
         // Assuming Customer table has an 'address' column based on requirements.
         // If not, this method is invalid.
         // Let's assume Customer table DOES NOT have address, so this update isn't possible directly.
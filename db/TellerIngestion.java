@@ -0,0 +1,299 @@
+package db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk posting of teller deposit/withdrawal sheets.
+ * Input is CSV with one "account,amount,type" row per line (type Deposit/Withdrawal, or D/W); a header
+ * line is optional. Accounts and balances are preloaded once, every line is validated in memory against
+ * the running balance, and valid lines are posted in batches, each one ledger-writer transaction.
+ * A result CSV with one line per input line is written as batches complete.
+ * Used by the staff portal upload (servlet.staff.TellerUploadServlet) and tools.TellerIngestCli.
+ */
+public class TellerIngestion {
+
+    private static final int BATCH_SIZE = DatabaseUtil.getConfig().getInt("teller.batchSize", 500);
+
+    /** Outcome of one file. */
+    public static class Summary {
+        private final int lines;
+        private final int posted;
+        private final int rejected;
+        private final long elapsedMillis;
+
+        Summary(int lines, int posted, int rejected, long elapsedMillis) {
+            this.lines = lines;
+            this.posted = posted;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getLines() {
+            return lines;
+        }
+
+        public int getPosted() {
+            return posted;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Processed %d line(s): %d posted, %d rejected, in %d ms.",
+                    lines, posted, rejected, elapsedMillis);
+        }
+    }
+
+    /**
+     * Reads the CSV, posts every valid line and writes "line,account,amount,type,status,message" rows to results.
+     * Lines that fail validation or posting are reported and skipped; they never stop the rest of the file.
+     * A batch the database refuses is rejected line by line too. Only a failure to preload the accounts,
+     * before any line is posted, throws.
+     */
+    public static Summary ingest(Reader csv, PrintWriter results) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        Map<String, BigDecimal> balances = loadBalances(); // Running balance per known account
+
+        results.println("line,account,amount,type,status,message");
+        BufferedReader reader = new BufferedReader(csv);
+        List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        int lineNumber = 0;
+        int posted = 0;
+        int rejected = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.trim().isEmpty() || (lineNumber == 1 && text.toLowerCase().startsWith("account"))) {
+                continue; // Blank line or header
+            }
+            Line line = parse(lineNumber, text);
+            if (line.error == null) {
+                validate(line, balances);
+            }
+            batch.add(line);
+            if (batch.size() == BATCH_SIZE) {
+                int[] counts = flush(batch, balances, results);
+                posted += counts[0];
+                rejected += counts[1];
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int[] counts = flush(batch, balances, results);
+            posted += counts[0];
+            rejected += counts[1];
+        }
+        results.flush();
+
+        Summary summary = new Summary(posted + rejected, posted, rejected, System.currentTimeMillis() - start);
+        System.out.println("Teller ingestion: " + summary);
+        return summary;
+    }
+
+    // --- Internals ---
+
+    private static Map<String, BigDecimal> loadBalances() throws SQLException {
+        String sql = "SELECT c.accountno, COALESCE(b.balance, 0) AS balance " +
+                     "FROM Customer c LEFT JOIN Account_Balance b ON b.accno = c.accountno";
+        Map<String, BigDecimal> balances = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(1000);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                balances.put(rs.getString("accountno"), BigDecimal.valueOf(rs.getDouble("balance")));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs);
+            DatabaseUtil.closeQuietly(pstmt);
+            DatabaseUtil.closeQuietly(conn);
+        }
+        return balances;
+    }
+
+    private static Line parse(int lineNumber, String text) {
+        Line line = new Line(lineNumber);
+        String[] fields = text.split(",", -1);
+        if (fields.length < 3) {
+            line.error = "Expected account,amount,type";
+            return line;
+        }
+        line.account = unquote(fields[0]);
+        line.rawAmount = unquote(fields[1]);
+        line.type = unquote(fields[2]);
+        String type = line.type.toLowerCase();
+        if (type.equals("deposit") || type.equals("d")) {
+            line.deposit = true;
+            line.type = "Deposit";
+        } else if (type.equals("withdrawal") || type.equals("withdraw") || type.equals("w")) {
+            line.deposit = false;
+            line.type = "Withdrawal";
+        } else {
+            line.error = "Unknown type '" + line.type + "'";
+            return line;
+        }
+        try {
+            line.amount = new BigDecimal(line.rawAmount);
+        } catch (NumberFormatException e) {
+            line.error = "Invalid amount";
+            return line;
+        }
+        if (line.amount.signum() <= 0 || line.amount.scale() > 2) {
+            line.error = "Amount must be positive with at most 2 decimals";
+        }
+        return line;
+    }
+
+    // Checks the line against the running balances and applies it to them if it is valid
+    private static void validate(Line line, Map<String, BigDecimal> balances) {
+        BigDecimal balance = balances.get(line.account);
+        if (balance == null) {
+            line.error = "Account not found";
+            return;
+        }
+        if (!line.deposit && balance.compareTo(line.amount) < 0) {
+            line.error = "Insufficient balance (" + balance.toPlainString() + " available)";
+            return;
+        }
+        balances.put(line.account, line.deposit ? balance.add(line.amount) : balance.subtract(line.amount));
+    }
+
+    // Posts the valid lines of the batch and writes a result row for every line; returns {posted, rejected}
+    private static int[] flush(List<Line> batch, Map<String, BigDecimal> balances, PrintWriter results) {
+        List<Line> valid = new ArrayList<>(batch.size());
+        for (Line line : batch) {
+            if (line.error == null) {
+                valid.add(line);
+            }
+        }
+        if (!valid.isEmpty()) {
+            try {
+                LedgerWriter.submit(conn -> {
+                    postBatch(conn, valid);
+                    return null;
+                });
+            } catch (SQLException e) {
+                // The batch was rolled back as a whole: reject all of it and carry on with the next one
+                System.err.println("Error posting teller batch ending at line " + batch.get(batch.size() - 1).number
+                        + ": " + e.getMessage());
+                for (Line line : valid) {
+                    line.error = "Not posted (database error: " + e.getMessage() + ")";
+                }
+            }
+            for (Line line : valid) {
+                if (line.error != null) {
+                    // Not posted after all: take the line back out of the running balance
+                    balances.merge(line.account, line.deposit ? line.amount.negate() : line.amount, BigDecimal::add);
+                }
+            }
+        }
+
+        int posted = 0;
+        for (Line line : batch) {
+            boolean ok = line.error == null;
+            if (ok) {
+                posted++;
+            }
+            results.println(line.number + "," + csv(line.account) + "," + csv(line.rawAmount) + "," + csv(line.type) + ","
+                    + (ok ? "POSTED" : "REJECTED") + "," + csv(ok ? "" : line.error));
+        }
+        return new int[] { posted, batch.size() - posted };
+    }
+
+    // Runs on the ledger writer's connection
+    private static void postBatch(Connection conn, List<Line> lines) throws SQLException {
+        // Withdrawals only apply if the stored balance still covers them: other activity on the
+        // account since the preload can make the in-memory running balance optimistic
+        String balanceSQL = "INSERT INTO Account_Balance (accno, balance) VALUES (?, ?) " +
+                            "ON CONFLICT(accno) DO UPDATE SET balance = balance + excluded.balance " +
+                            "WHERE excluded.balance >= 0 OR balance + excluded.balance >= 0";
+        String insertSQL = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        // 1. Balance updates first, in file order
+        int[] applied;
+        try (PreparedStatement pstmt = conn.prepareStatement(balanceSQL)) {
+            for (Line line : lines) {
+                pstmt.setString(1, line.account);
+                pstmt.setDouble(2, line.deposit ? line.amount.doubleValue() : -line.amount.doubleValue());
+                pstmt.addBatch();
+            }
+            applied = pstmt.executeBatch();
+        }
+
+        // 2. Ledger rows for the lines whose balance update went through
+        int inserts = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                if (applied[i] == 0) {
+                    line.error = "Insufficient balance at posting time";
+                    continue;
+                }
+                pstmt.setString(1, line.account); // The account affected
+                pstmt.setDouble(2, line.amount.doubleValue());
+                pstmt.setString(3, line.deposit ? line.account : null);
+                pstmt.setString(4, line.deposit ? null : line.account);
+                pstmt.setString(5, line.deposit ? "Deposit" : "Withdrawal");
+                pstmt.addBatch();
+                inserts++;
+            }
+            if (inserts > 0) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    private static String unquote(String field) {
+        String s = field.trim();
+        if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) {
+            s = s.substring(1, s.length() - 1).trim();
+        }
+        return s;
+    }
+
+    // Quotes a value for the result CSV if it contains a separator or quote
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static class Line {
+        final int number;
+        String account;
+        String rawAmount;
+        String type;
+        BigDecimal amount;
+        boolean deposit;
+        String error;
+
+        Line(int number) {
+            this.number = number;
+        }
+    }
+}
\ No newline at end of file
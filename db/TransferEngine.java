@@ -0,0 +1,161 @@
+package db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes balance-changing operations per account using a fixed table of striped locks.
+ * Operations on the same account (or accounts that hash to the same stripe) run one at a time;
+ * operations on unrelated accounts run in parallel. When two accounts are involved, their
+ * stripes are always locked in ascending index order so two opposite transfers cannot deadlock.
+ */
+public class TransferEngine {
+
+    public enum Result { SUCCESS, INSUFFICIENT_FUNDS, FAILED }
+
+    // Power of two so the stripe index is a mask; 64 stripes keeps false sharing between accounts rare
+    private static final int STRIPE_COUNT = 64;
+
+    private static final ReentrantLock[] STRIPES = new ReentrantLock[STRIPE_COUNT];
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            STRIPES[i] = new ReentrantLock();
+        }
+    }
+
+    // Contention metrics, per stripe
+    private static final AtomicLongArray ACQUISITIONS = new AtomicLongArray(STRIPE_COUNT);
+    private static final AtomicLongArray CONTENDED = new AtomicLongArray(STRIPE_COUNT);
+    private static final AtomicLongArray WAIT_NANOS = new AtomicLongArray(STRIPE_COUNT);
+
+    /** Work executed while holding account locks. */
+    public interface LockedWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Moves amount from one account to another. The balance check, both ledger rows and
+     * both balance updates happen in one database transaction while both accounts are locked.
+     */
+    public static Result transfer(String fromAccount, String toAccount, double amount) {
+        if (amount <= 0 || fromAccount == null || toAccount == null || fromAccount.equals(toAccount)) {
+            System.err.println("Invalid transfer parameters provided.");
+            return Result.FAILED;
+        }
+        try {
+            return withAccountLocks(fromAccount, toAccount, () -> doTransfer(fromAccount, toAccount, amount));
+        } catch (SQLException e) {
+            System.err.println("Error performing transfer: " + e.getMessage());
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Runs work while holding the lock of a single account.
+     */
+    public static <T> T withAccountLock(String account, LockedWork<T> work) throws SQLException {
+        int stripe = stripeFor(account);
+        lockStripe(stripe);
+        try {
+            return work.run();
+        } finally {
+            STRIPES[stripe].unlock();
+        }
+    }
+
+    /**
+     * Runs work while holding the locks of both accounts, acquired in stripe order.
+     */
+    public static <T> T withAccountLocks(String first, String second, LockedWork<T> work) throws SQLException {
+        int a = stripeFor(first);
+        int b = stripeFor(second);
+        if (a == b) {
+            return withAccountLock(first, work);
+        }
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        lockStripe(low);
+        try {
+            lockStripe(high);
+            try {
+                return work.run();
+            } finally {
+                STRIPES[high].unlock();
+            }
+        } finally {
+            STRIPES[low].unlock();
+        }
+    }
+
+    // --- Metrics ---
+
+    public static int getStripeCount() {
+        return STRIPE_COUNT;
+    }
+
+    public static long getAcquisitions(int stripe) {
+        return ACQUISITIONS.get(stripe);
+    }
+
+    // Acquisitions that found the stripe already held and had to wait
+    public static long getContendedAcquisitions(int stripe) {
+        return CONTENDED.get(stripe);
+    }
+
+    public static long getWaitNanos(int stripe) {
+        return WAIT_NANOS.get(stripe);
+    }
+
+    // --- Internals ---
+
+    private static Result doTransfer(String fromAccount, String toAccount, double amount) throws SQLException {
+        String sqlInsert = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        // Runs on the ledger writer's connection, in its batch transaction
+        return LedgerWriter.submit(conn -> {
+            // 1. Check funds inside the transaction, under the account lock
+            if (BalanceDB.getBalance(conn, fromAccount) < amount) {
+                return Result.INSUFFICIENT_FUNDS;
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsert)) {
+                // 2. Record Debit from sender
+                pstmt.setString(1, fromAccount); // Primary account for this record
+                pstmt.setDouble(2, amount);
+                pstmt.setString(3, toAccount);
+                pstmt.setString(4, fromAccount);
+                pstmt.setString(5, "Transfer Out");
+                pstmt.executeUpdate();
+
+                // 3. Record Credit to receiver
+                pstmt.setString(1, toAccount); // Primary account for this record
+                pstmt.setString(5, "Transfer In");
+                pstmt.executeUpdate();
+            }
+
+            // 4. Move the balance in the same transaction
+            BalanceDB.applyDelta(conn, fromAccount, -amount);
+            BalanceDB.applyDelta(conn, toAccount, amount);
+            return Result.SUCCESS;
+        });
+    }
+
+    private static int stripeFor(String account) {
+        int h = account.hashCode();
+        h ^= (h >>> 16); // Spread high bits, account numbers often differ only in the last digits
+        return h & (STRIPE_COUNT - 1);
+    }
+
+    private static void lockStripe(int stripe) {
+        ReentrantLock lock = STRIPES[stripe];
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            CONTENDED.incrementAndGet(stripe);
+            WAIT_NANOS.addAndGet(stripe, System.nanoTime() - start);
+        }
+        ACQUISITIONS.incrementAndGet(stripe);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package model;
+
+// Ledger activity of one category in one hour or day, read from the analytics roll-up tables
+public class ActivityStat {
+    private String period; // "YYYY-MM-DD HH" for hourly rows, "YYYY-MM-DD" for daily rows (UTC)
+    private String category; // Deposit, Withdrawal, Transfer, LoanDisbursement, LoanRepayment, FDOpened, FDClosed, Other
+    private long txnCount;
+    private double totalAmount;
+
+    // Constructor
+    public ActivityStat(String period, String category, long txnCount, double totalAmount) {
+        this.period = period;
+        this.category = category;
+        this.txnCount = txnCount;
+        this.totalAmount = totalAmount;
+    }
+
+    // Getters
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getTxnCount() {
+        return txnCount;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package model;
+
+// Result row of the balance verification job: stored Account_Balance value vs. balance recomputed from Transactions
+public class BalanceDrift {
+    private String accountNumber;
+    private double storedBalance;
+    private double ledgerBalance;
+
+    // Constructor
+    public BalanceDrift(String accountNumber, double storedBalance, double ledgerBalance) {
+        this.accountNumber = accountNumber;
+        this.storedBalance = storedBalance;
+        this.ledgerBalance = ledgerBalance;
+    }
+
+    // Getters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public double getStoredBalance() {
+        return storedBalance;
+    }
+
+    public double getLedgerBalance() {
+        return ledgerBalance;
+    }
+
+    public double getDrift() {
+        return storedBalance - ledgerBalance;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package model;
+
+// Payload of a 'DetailChange' request (Request.data_json); null fields are left unchanged
+public class DetailChangeRequestData {
+    private String name;
+    private String email;
+    private String mobile;
+
+    // Constructor
+    public DetailChangeRequestData(String name, String email, String mobile) {
+        this.name = name;
+        this.email = email;
+        this.mobile = mobile;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+}
\ No newline at end of file
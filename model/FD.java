@@ -8,9 +8,16 @@ public class FD {
     public float interestRate;
     public int termYears;
     public String status;
+    public String startDate; // Set when the manager approves the FD (YYYY-MM-DD)
+    public double accruedInterest; // Interest earned so far, refreshed by the daily accrual pass
 
     public FD(int id, String accNumber, String dateCreated, double amount, float interestRate, int termYears,
             String status) {
+        this(id, accNumber, dateCreated, amount, interestRate, termYears, status, null, 0.0);
+    }
+
+    public FD(int id, String accNumber, String dateCreated, double amount, float interestRate, int termYears,
+            String status, String startDate, double accruedInterest) {
         this.id = id;
         this.accNumber = accNumber;
         this.dateCreated = dateCreated;
@@ -18,6 +25,8 @@ public class FD {
         this.interestRate = interestRate;
         this.termYears = termYears;
         this.status = status;
+        this.startDate = startDate;
+        this.accruedInterest = accruedInterest;
     }
 
     public int getId() {
@@ -48,4 +57,17 @@ public class FD {
         return status;
     }
 
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public double getAccruedInterest() {
+        return accruedInterest;
+    }
+
+    // Start date plus the term, or null while the FD has not been approved
+    public String getMaturityDate() {
+        return startDate == null ? null : java.time.LocalDate.parse(startDate).plusYears(termYears).toString();
+    }
+
 }
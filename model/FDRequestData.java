@@ -0,0 +1,28 @@
+package model;
+
+// Payload of an 'FD' request (Request.data_json); the FD starts on the day a manager approves it
+public class FDRequestData {
+    private double amount;
+    private double interestRate; // Annual rate in percent
+    private int durationYears;
+
+    // Constructor
+    public FDRequestData(double amount, double interestRate, int durationYears) {
+        this.amount = amount;
+        this.interestRate = interestRate;
+        this.durationYears = durationYears;
+    }
+
+    // Getters
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    public int getDurationYears() {
+        return durationYears;
+    }
+}
\ No newline at end of file
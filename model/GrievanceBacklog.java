@@ -0,0 +1,28 @@
+package model;
+
+// Open grievances with one status: how many and since when the oldest has been waiting
+public class GrievanceBacklog {
+    private String status;
+    private int count;
+    private String oldestCreatedAt;
+
+    // Constructor
+    public GrievanceBacklog(String status, int count, String oldestCreatedAt) {
+        this.status = status;
+        this.count = count;
+        this.oldestCreatedAt = oldestCreatedAt;
+    }
+
+    // Getters
+    public String getStatus() {
+        return status;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getOldestCreatedAt() {
+        return oldestCreatedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package model;
+
+// Payload of a 'Loan' request (Request.data_json), filled in by staff and applied by ManagerDB on approval
+public class LoanRequestData {
+    private double amount;
+    private double interestRate; // Annual rate in percent
+    private int durationYears;
+
+    // Constructor
+    public LoanRequestData(double amount, double interestRate, int durationYears) {
+        this.amount = amount;
+        this.interestRate = interestRate;
+        this.durationYears = durationYears;
+    }
+
+    // Getters
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    public int getDurationYears() {
+        return durationYears;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package model;
+
+import java.math.BigDecimal;
+
+// Valuation of one loan on a given date: amount needed to repay it and the penalty state behind that amount
+public class LoanValuation {
+    private int loanId;
+    private String accountNumber;
+    private String valuationDate; // "YYYY-MM-DD"
+    private double principal;
+    private BigDecimal payoffAmount; // Rounded to 2 decimal places
+    private long overdueHalfYears; // Full half-years past the loan duration (0 if not overdue)
+    private BigDecimal effectiveRatePercent; // Annual rate including the overdue penalty
+
+    // Constructor
+    public LoanValuation(int loanId, String accountNumber, String valuationDate, double principal,
+            BigDecimal payoffAmount, long overdueHalfYears, BigDecimal effectiveRatePercent) {
+        this.loanId = loanId;
+        this.accountNumber = accountNumber;
+        this.valuationDate = valuationDate;
+        this.principal = principal;
+        this.payoffAmount = payoffAmount;
+        this.overdueHalfYears = overdueHalfYears;
+        this.effectiveRatePercent = effectiveRatePercent;
+    }
+
+    // Getters
+    public int getLoanId() {
+        return loanId;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getValuationDate() {
+        return valuationDate;
+    }
+
+    public double getPrincipal() {
+        return principal;
+    }
+
+    public BigDecimal getPayoffAmount() {
+        return payoffAmount;
+    }
+
+    public long getOverdueHalfYears() {
+        return overdueHalfYears;
+    }
+
+    public BigDecimal getEffectiveRatePercent() {
+        return effectiveRatePercent;
+    }
+}
\ No newline at end of file
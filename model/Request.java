@@ -22,9 +22,15 @@ public class Request {
     public String createdByStaffNo;
     public String approvedByManagerNo;
     public String createdAt;
+    public Object payload; // data_json parsed into the type's payload class (see db.RequestDB)
 
     public Request(int id, String type, String dataJson, String status, String remarks, String relatedToAccNo,
             String createdByStaffNo, String approvedByManagerNo) {
+        this(id, type, dataJson, status, remarks, relatedToAccNo, createdByStaffNo, approvedByManagerNo, null, null);
+    }
+
+    public Request(int id, String type, String dataJson, String status, String remarks, String relatedToAccNo,
+            String createdByStaffNo, String approvedByManagerNo, String createdAt, Object payload) {
         this.id = id;
         this.type = type;
         this.dataJson = dataJson;
@@ -33,6 +39,8 @@ public class Request {
         this.relatedToAccNo = relatedToAccNo;
         this.createdByStaffNo = createdByStaffNo;
         this.approvedByManagerNo = approvedByManagerNo;
+        this.createdAt = createdAt;
+        this.payload = payload;
     }
 
     public int getId() {
@@ -71,4 +79,8 @@ public class Request {
         return createdAt;
 
     }
+
+    public Object getPayload() {
+        return payload;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package model;
+
+import java.util.List;
+
+// One page of the approval queue, oldest first, plus the cursor for the next page
+public class RequestPage {
+    private List<Request> requests;
+    private Integer nextCursor; // Id to pass as "after" for the next page; null when there are no more rows
+
+    // Constructor
+    public RequestPage(List<Request> requests, Integer nextCursor) {
+        this.requests = requests;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
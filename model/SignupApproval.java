@@ -0,0 +1,34 @@
+package model;
+
+// One row of a bulk signup approval: the pending signup and the account details the manager assigned
+public class SignupApproval {
+    private int signupId;
+    private String accountNumber;
+    private String passwordHash;
+    private double initialDeposit;
+
+    // Constructor
+    public SignupApproval(int signupId, String accountNumber, String passwordHash, double initialDeposit) {
+        this.signupId = signupId;
+        this.accountNumber = accountNumber;
+        this.passwordHash = passwordHash;
+        this.initialDeposit = initialDeposit;
+    }
+
+    // Getters
+    public int getSignupId() {
+        return signupId;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public double getInitialDeposit() {
+        return initialDeposit;
+    }
+}
\ No newline at end of file
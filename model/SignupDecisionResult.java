@@ -0,0 +1,34 @@
+package model;
+
+// Outcome of one row of a bulk signup approval or rejection
+public class SignupDecisionResult {
+    private int signupId;
+    private String accountNumber; // Null for rejections
+    private boolean success;
+    private String message;
+
+    // Constructor
+    public SignupDecisionResult(int signupId, String accountNumber, boolean success, String message) {
+        this.signupId = signupId;
+        this.accountNumber = accountNumber;
+        this.success = success;
+        this.message = message;
+    }
+
+    // Getters
+    public int getSignupId() {
+        return signupId;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package model;
+
+import java.util.List;
+
+// One page of an account's transaction history, newest first, plus the cursor for the next (older) page
+public class TransactionPage {
+    private List<Transaction> transactions;
+    private Integer nextCursor; // Id to pass as "before" for the next page; null when there are no older rows
+
+    // Constructor
+    public TransactionPage(List<Transaction> transactions, Integer nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
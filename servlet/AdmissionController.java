@@ -0,0 +1,159 @@
+package servlet;
+
+import db.DatabaseUtil;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency budget of one portal. At most maxConcurrent requests of the portal run at once; up to
+ * maxQueued more wait, each for at most maxQueueMs, and everything beyond that is shed at once
+ * (the router answers 503 with Retry-After). Each portal has its own budget, so a burst of customer
+ * dashboard refreshes cannot take the capacity that staff teller work and manager approvals need.
+ * Budgets are declared in each router's RouteTable and can be overridden with
+ * admission.&lt;portal&gt;.maxConcurrent, .maxQueued and .maxQueueMs.
+ * Waiting happens on Tomcat's connector thread, so the budgets of all portals together must fit well inside
+ * the connector's thread pool; checkConnectorBudget enforces that at startup.
+ */
+public class AdmissionController {
+
+    // Tomcat's maxThreads for the connector; keep in step with server.xml
+    private static final int CONNECTOR_THREADS = DatabaseUtil.getConfig().getInt("admission.connectorThreads", 200);
+
+    private final String portal;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxQueueMillis;
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong admitted = new AtomicLong(); // Got a permit without waiting
+    private final AtomicLong queued = new AtomicLong();   // Got a permit after waiting
+    private final AtomicLong shed = new AtomicLong();     // Turned away: queue full or waited too long
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    AdmissionController(String portal, int maxConcurrent, int maxQueued, long maxQueueMillis) {
+        this.portal = portal;
+        this.maxConcurrent = DatabaseUtil.getConfig().getInt("admission." + portal + ".maxConcurrent", maxConcurrent);
+        this.maxQueued = DatabaseUtil.getConfig().getInt("admission." + portal + ".maxQueued", maxQueued);
+        this.maxQueueMillis = DatabaseUtil.getConfig().getLong("admission." + portal + ".maxQueueMs", maxQueueMillis);
+        if (this.maxConcurrent <= 0 || this.maxQueued < 0 || this.maxQueueMillis < 0) {
+            throw new IllegalStateException("Invalid admission budget for " + portal + " portal: maxConcurrent="
+                    + this.maxConcurrent + ", maxQueued=" + this.maxQueued + ", maxQueueMs=" + this.maxQueueMillis);
+        }
+        this.permits = new Semaphore(this.maxConcurrent, true); // Fair: waiters are admitted in arrival order
+    }
+
+    /**
+     * Takes a permit, waiting up to maxQueueMs if the portal is at its limit.
+     * Returns false if the request must be shed. Every true must be matched by one release().
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxQueued) {
+            waiting.decrementAndGet();
+            shed.incrementAndGet();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(maxQueueMillis, TimeUnit.MILLISECONDS)) {
+                long waited = System.nanoTime() - start;
+                totalQueueNanos.addAndGet(waited);
+                maxQueueNanos.accumulateAndGet(waited, Math::max);
+                queued.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        shed.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Fails startup if the portals together could hold more than three quarters of the connector's threads.
+     * Every queued request, and in synchronous mode every running one, occupies a connector thread; without
+     * this cap one busy portal could take all of them before its own budget sheds anything, and the other
+     * portals would starve. The remaining quarter serves 503s, logins and static files.
+     */
+    public static void checkConnectorBudget(Iterable<RouteTable> tables) {
+        int limit = CONNECTOR_THREADS * 3 / 4;
+        int total = 0;
+        StringBuilder budgets = new StringBuilder();
+        for (RouteTable table : tables) {
+            AdmissionController budget = table.getAdmission();
+            if (budget == null) {
+                throw new IllegalStateException("Portal " + table.getPortal() + " has no admission budget; "
+                        + "its requests could take every connector thread.");
+            }
+            total += budget.maxConcurrent + budget.maxQueued;
+            budgets.append(budgets.length() == 0 ? "" : ", ").append(budget.portal).append('=')
+                    .append(budget.maxConcurrent).append('+').append(budget.maxQueued);
+        }
+        if (total > limit) {
+            throw new IllegalStateException("Admission budgets (" + budgets + ") allow " + total
+                    + " requests to hold connector threads; the limit is " + limit + " (3/4 of admission.connectorThreads="
+                    + CONNECTOR_THREADS + "). Lower admission.<portal>.maxConcurrent or .maxQueued.");
+        }
+        System.out.println("Admission budgets: " + budgets + ", " + total + " of " + CONNECTOR_THREADS + " connector threads");
+    }
+
+    /** Seconds a shed client should wait before retrying: the queue limit, rounded up, at least 1. */
+    public long getRetryAfterSeconds() {
+        return Math.max(1L, (maxQueueMillis + 999) / 1000);
+    }
+
+    public String getPortal() {
+        return portal;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    // --- Metrics ---
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.get();
+    }
+
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getShedCount() {
+        return shed.get();
+    }
+
+    public double getAverageQueueMillis() {
+        long count = queued.get();
+        return count == 0 ? 0.0 : totalQueueNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxQueueMillis() {
+        return maxQueueNanos.get() / 1_000_000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package servlet;
+
+import db.AnalyticsDB;
+import db.DatabaseUtil;
+import db.FDEngine;
+import db.FDMaturitySweeper;
+import db.LedgerWriter;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts shared resources when the web application is deployed and releases them on undeploy.
+ */
+@WebListener
+public class AppLifecycleListener implements ServletContextListener {
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        DatabaseUtil.getConfig(); // Invalid configuration fails the deployment here, not on the first request
+        AdmissionController.checkConnectorBudget(AuthFilter.getRouteTables());
+        try {
+            DatabaseUtil.getPool(); // Pre-warm the connection pool before the first request
+        } catch (SQLException e) {
+            System.err.println("Error starting database connection pool: " + e.getMessage());
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "background-jobs");
+            t.setDaemon(true);
+            return t;
+        });
+        // Accrual skips FDs already done for the day, so a short interval only means the date change is picked up sooner
+        long accrualMinutes = DatabaseUtil.getConfig().getLong("fd.accrualIntervalMinutes", 60L);
+        scheduler.scheduleWithFixedDelay(AppLifecycleListener::accrueFDInterest, 0, accrualMinutes, TimeUnit.MINUTES);
+        long sweepMinutes = DatabaseUtil.getConfig().getLong("fd.maturitySweepIntervalMinutes", 60L);
+        scheduler.scheduleWithFixedDelay(AppLifecycleListener::sweepMaturedFDs, 0, sweepMinutes, TimeUnit.MINUTES);
+        // Each run only reads ledger rows added since the previous one
+        long rollupMinutes = DatabaseUtil.getConfig().getLong("analytics.rollupIntervalMinutes", 1L);
+        scheduler.scheduleWithFixedDelay(AppLifecycleListener::rollupAnalytics, 0, rollupMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        AsyncDispatch.shutdown(); // Let in-flight requests finish their ledger writes
+        LedgerWriter.shutdown(); // Commit queued ledger writes before the pool goes away
+        DatabaseUtil.shutdown();
+    }
+
+    private static void accrueFDInterest() {
+        try {
+            FDEngine.accrueAll(LocalDate.now());
+        } catch (SQLException | RuntimeException e) {
+            // Never let an exception cancel the schedule
+            System.err.println("Error accruing FD interest: " + e.getMessage());
+        }
+    }
+
+    private static void sweepMaturedFDs() {
+        try {
+            FDMaturitySweeper.run(LocalDate.now());
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error paying out matured FDs: " + e.getMessage());
+        }
+    }
+
+    private static void rollupAnalytics() {
+        try {
+            AnalyticsDB.rollup();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error rolling up analytics: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
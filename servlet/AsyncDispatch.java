@@ -0,0 +1,221 @@
+package servlet;
+
+import db.DatabaseUtil;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional asynchronous execution of portal routes (web.async.enabled, off by default).
+ * When enabled, RouteTable hands each request to an executor through AsyncContext and Tomcat's connector
+ * thread is released at once, so slow database calls no longer tie up the connector pool.
+ * On a JVM with virtual threads (Java 21+) the executor starts one virtual thread per request; otherwise
+ * it is a bounded platform-thread pool (web.async.poolSize threads, web.async.queueCapacity queued).
+ * Database concurrency stays bounded by the connection pool: waiting for a connection parks the thread
+ * without holding a monitor, which is cheap for virtual threads.
+ * Requests whose filter chain or servlet does not support async (see README) run synchronously as before.
+ * A request that times out gets a 503 at once; the handler, which may still be running, only ever sees
+ * AsyncGuard views of the request and response, so it cannot write to them after they are recycled.
+ */
+public class AsyncDispatch {
+
+    private static final boolean ENABLED = DatabaseUtil.getConfig().getBoolean("web.async.enabled", false);
+    private static final long TIMEOUT_MS = DatabaseUtil.getConfig().getLong("web.async.timeoutMs", 120000L);
+    private static final int POOL_SIZE = DatabaseUtil.getConfig().getInt("web.async.poolSize", 64);
+    private static final int QUEUE_CAPACITY = DatabaseUtil.getConfig().getInt("web.async.queueCapacity", 1000);
+
+    private static ExecutorService executor;
+    private static boolean virtualThreads;
+
+    // Metrics
+    private static final AtomicLong ASYNC_REQUESTS = new AtomicLong();
+    private static final AtomicLong SYNC_FALLBACKS = new AtomicLong();
+    private static final AtomicLong REJECTED = new AtomicLong();
+    private static final AtomicLong TIMEOUTS = new AtomicLong();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    /**
+     * Runs the route on the executor if async mode is on and the request allows it, otherwise on the calling thread.
+     * onDone (may be null) runs exactly once, when the handler has finished or the request was rejected.
+     */
+    static void run(RouteTable.Route route, HttpServletRequest req, HttpServletResponse resp, Runnable onDone)
+            throws IOException, ServletException {
+        if (!ENABLED || !req.isAsyncSupported() || req.isAsyncStarted()) {
+            if (ENABLED) {
+                SYNC_FALLBACKS.incrementAndGet();
+            }
+            try {
+                route.invoke(req, resp);
+            } finally {
+                done(onDone);
+            }
+            return;
+        }
+
+        AsyncContext ctx = req.startAsync(req, resp);
+        ctx.setTimeout(TIMEOUT_MS);
+        AtomicBoolean finished = new AtomicBoolean(); // Set by whichever of task or timeout ends the request first
+        AsyncGuard guard = new AsyncGuard(req, resp);
+        ctx.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    TIMEOUTS.incrementAndGet();
+                    System.err.println("Request timed out after " + TIMEOUT_MS + " ms: " + req.getRequestURI());
+                    guard.close(); // Waits for a handler call in progress; later ones are dropped
+                    HttpServletResponse timedOut = (HttpServletResponse) event.getAsyncContext().getResponse();
+                    if (!timedOut.isCommitted()) {
+                        timedOut.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    }
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            IN_FLIGHT.incrementAndGet();
+            executor().execute(() -> execute(route, ctx, guard, finished, onDone));
+            ASYNC_REQUESTS.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            IN_FLIGHT.decrementAndGet();
+            done(onDone);
+            REJECTED.incrementAndGet();
+            finished.set(true);
+            resp.setHeader("Retry-After", "1");
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            ctx.complete();
+        }
+    }
+
+    private static void execute(RouteTable.Route route, AsyncContext ctx, AsyncGuard guard, AtomicBoolean finished,
+            Runnable onDone) {
+        HttpServletRequest req = guard.request();
+        HttpServletResponse resp = guard.response();
+        try {
+            route.invoke(req, resp);
+        } catch (IOException | ServletException | RuntimeException e) {
+            System.err.println("Error handling " + route.getPortal() + route.getPath() + ": " + e.getMessage());
+            if (!finished.get() && !resp.isCommitted()) {
+                try {
+                    resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException ignored) {
+                    // Client is gone
+                }
+            }
+        } finally {
+            IN_FLIGHT.decrementAndGet();
+            done(onDone); // Before complete(), so the next request of the portal can start right away
+            if (finished.compareAndSet(false, true)) {
+                ctx.complete();
+            }
+        }
+    }
+
+    private static void done(Runnable onDone) {
+        if (onDone != null) {
+            onDone.run();
+        }
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = newVirtualThreadExecutor();
+            virtualThreads = executor != null;
+            if (executor == null) {
+                AtomicInteger threadNumber = new AtomicInteger();
+                executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                            Thread t = new Thread(r, "portal-worker-" + threadNumber.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+            }
+            System.out.println("Async request dispatch started: " + (virtualThreads
+                    ? "virtual thread per request"
+                    : "platform pool of " + POOL_SIZE + " threads, queueCapacity=" + QUEUE_CAPACITY)
+                    + ", timeoutMs=" + TIMEOUT_MS);
+        }
+        return executor;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when the JVM has it (Java 21+); the code still builds for Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Stops accepting requests and waits briefly for running ones. */
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    // --- Metrics ---
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static synchronized boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public static int getInFlight() {
+        return IN_FLIGHT.get();
+    }
+
+    public static long getAsyncRequestCount() {
+        return ASYNC_REQUESTS.get();
+    }
+
+    public static long getSyncFallbackCount() {
+        return SYNC_FALLBACKS.get();
+    }
+
+    public static long getRejectedCount() {
+        return REJECTED.get();
+    }
+
+    public static long getTimeoutCount() {
+        return TIMEOUTS.get();
+    }
+}
\ No newline at end of file
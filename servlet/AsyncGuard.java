@@ -0,0 +1,274 @@
+package servlet;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fences an async route handler off from its request once the request has timed out.
+ * AsyncDispatch hands the handler the request() and response() views instead of the container's objects.
+ * On timeout it calls close() before it answers 503 and completes the request, because after complete()
+ * the container recycles both objects for another client. From then on the handler's output and response
+ * changes are dropped, isCommitted() reports true, and any other call fails with IllegalStateException.
+ * Every call holds the guard's lock, so close() waits for a call already in progress (including a JSP
+ * forward) instead of interleaving with it. The lock is a ReentrantLock rather than a monitor so a handler
+ * on a virtual thread can unmount while it blocks on the client inside a forward or write.
+ */
+class AsyncGuard {
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final ReentrantLock guardLock = new ReentrantLock();
+    private boolean closed;
+    private PrintWriter writer;
+    private ServletOutputStream outputStream;
+
+    AsyncGuard(HttpServletRequest request, HttpServletResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    /** Cuts the handler off, once any call it has in progress returns. */
+    void close() {
+        guardLock.lock();
+        try {
+            closed = true;
+        } finally {
+            guardLock.unlock();
+        }
+    }
+
+    HttpServletRequest request() {
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, this::invokeRequest);
+    }
+
+    HttpServletResponse response() {
+        return (HttpServletResponse) Proxy.newProxyInstance(HttpServletResponse.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class }, this::invokeResponse);
+    }
+
+    private Object invokeRequest(Object proxy, Method method, Object[] args) throws Throwable {
+        if (isObjectMethod(method)) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+        guardLock.lock();
+        try {
+            checkOpen();
+            Object result = invoke(request, method, args);
+            if (result instanceof RequestDispatcher) {
+                return guard((RequestDispatcher) result);
+            }
+            return result;
+        } finally {
+            guardLock.unlock();
+        }
+    }
+
+    private Object invokeResponse(Object proxy, Method method, Object[] args) throws Throwable {
+        if (isObjectMethod(method)) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+        guardLock.lock();
+        try {
+            switch (method.getName()) {
+                case "getWriter":
+                    if (writer == null) {
+                        writer = new PrintWriter(closed ? Writer.nullWriter() : new GuardedWriter(response.getWriter()));
+                    }
+                    return writer;
+                case "getOutputStream":
+                    if (outputStream == null) {
+                        outputStream = new GuardedOutputStream(closed ? null : response.getOutputStream());
+                    }
+                    return outputStream;
+                case "isCommitted":
+                    return closed || response.isCommitted();
+                default:
+                    if (closed && method.getReturnType() == void.class) {
+                        return null; // Dropped: the response belongs to someone else now
+                    }
+                    checkOpen();
+                    return invoke(response, method, args);
+            }
+        } finally {
+            guardLock.unlock();
+        }
+    }
+
+    // Forward and include run under the lock, so a timeout waits for the page to finish rendering
+    private RequestDispatcher guard(RequestDispatcher dispatcher) {
+        return (RequestDispatcher) Proxy.newProxyInstance(RequestDispatcher.class.getClassLoader(),
+                new Class<?>[] { RequestDispatcher.class }, (proxy, method, args) -> {
+                    if (isObjectMethod(method)) {
+                        return invokeObjectMethod(proxy, method, args);
+                    }
+                    guardLock.lock();
+                    try {
+                        checkOpen();
+                        return invoke(dispatcher, method, args);
+                    } finally {
+                        guardLock.unlock();
+                    }
+                });
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Request has timed out and was completed.");
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        return method.getDeclaringClass() == Object.class;
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "AsyncGuard@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+    }
+
+    private class GuardedWriter extends Writer {
+        private final Writer out;
+
+        GuardedWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.write(buffer, offset, length);
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.flush();
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.close();
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+    }
+
+    private class GuardedOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out; // Null if the request had already timed out
+
+        GuardedOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.write(b);
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.write(buffer, offset, length);
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.flush();
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            guardLock.lock();
+            try {
+                if (!closed) {
+                    out.close();
+                }
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            guardLock.lock();
+            try {
+                return closed || out.isReady();
+            } finally {
+                guardLock.unlock();
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            guardLock.lock();
+            try {
+                checkOpen();
+                out.setWriteListener(listener);
+            } finally {
+                guardLock.unlock();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package servlet;
+
+import servlet.customer.CustomerRouter;
+import servlet.manager.ManagerRouter;
+import servlet.staff.StaffRouter;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Login check for all three portals, in one place.
+ * Resolves the request's route in the portal's RouteTable and, unless the route is public, redirects to the
+ * portal's login page when the session has no logged-in user. The resolved route is passed on to the router
+ * as a request attribute so it is looked up only once.
+ */
+@WebFilter(urlPatterns = { "/customer/*", "/staff/*", "/manager/*" }, asyncSupported = true)
+public class AuthFilter implements Filter {
+
+    // Keyed by the routers' servlet paths
+    private static final Map<String, RouteTable> PORTALS = Map.of(
+            "/customer", CustomerRouter.ROUTES,
+            "/staff", StaffRouter.ROUTES,
+            "/manager", ManagerRouter.ROUTES);
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse resp = (HttpServletResponse) response;
+
+        RouteTable table = PORTALS.get(req.getServletPath());
+        if (table == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RouteTable.Route route = table.lookup(req.getPathInfo());
+        if (!table.authorize(req, resp, route)) {
+            return;
+        }
+        if (route != null) {
+            req.setAttribute(RouteTable.ROUTE_ATTRIBUTE, route);
+        }
+        chain.doFilter(request, response);
+    }
+
+    /** Route tables of all portals, for metrics. */
+    public static Iterable<RouteTable> getRouteTables() {
+        return PORTALS.values();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+package servlet;
+
+import db.LatencyHistogram;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declarative routes of one portal (customer, staff or manager): path + allowed methods -> handler,
+ * and whether the portal's session role is required. Built once when the router class loads; dispatch
+ * is a single map lookup. AuthFilter uses the same table to enforce login before the router runs.
+ * Every route keeps its own request count, error count and latency histogram.
+ */
+public class RouteTable {
+
+    /** Request attribute under which AuthFilter leaves the resolved Route for the router. */
+    public static final String ROUTE_ATTRIBUTE = RouteTable.class.getName() + ".route";
+
+    /** A portal page handler; all handlers are static handle(req, resp) methods. */
+    public interface Handler {
+        void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException;
+    }
+
+    private final String portal;
+    private final String sessionAttribute;
+    private final String loginPath;
+    private final Map<String, Route> routes = new HashMap<>();
+    private final List<Route> distinctRoutes = new ArrayList<>();
+    private AdmissionController admission; // Null: no concurrency budget
+
+    /**
+     * @param portal           Name used in logs and metrics, e.g. "customer"
+     * @param sessionAttribute Session attribute that marks a logged-in user of this portal
+     * @param loginPath        Where unauthenticated requests are redirected, relative to the context path
+     */
+    public RouteTable(String portal, String sessionAttribute, String loginPath) {
+        this.portal = portal;
+        this.sessionAttribute = sessionAttribute;
+        this.loginPath = loginPath;
+    }
+
+    /** Route that requires the portal's logged-in session. */
+    public RouteTable route(String path, Handler handler, String... methods) {
+        return add(path, handler, true, methods);
+    }
+
+    /** Route reachable without logging in (the login page itself). */
+    public RouteTable publicRoute(String path, Handler handler, String... methods) {
+        return add(path, handler, false, methods);
+    }
+
+    /**
+     * Concurrency budget for the whole portal (see AdmissionController); without one, requests are never shed.
+     */
+    public RouteTable admission(int maxConcurrent, int maxQueued, long maxQueueMillis) {
+        admission = new AdmissionController(portal, maxConcurrent, maxQueued, maxQueueMillis);
+        return this;
+    }
+
+    /** Makes another path (e.g. "/" or no path at all) serve an existing route. */
+    public RouteTable alias(String path, String targetPath) {
+        Route target = routes.get(targetPath);
+        if (target == null) {
+            throw new IllegalArgumentException("No route " + targetPath + " to alias in " + portal + " portal.");
+        }
+        routes.put(path, target);
+        return this;
+    }
+
+    private RouteTable add(String path, Handler handler, boolean requiresLogin, String... methods) {
+        if (routes.containsKey(path)) {
+            throw new IllegalArgumentException("Duplicate route " + path + " in " + portal + " portal.");
+        }
+        Route route = new Route(portal, path, handler, requiresLogin, methods);
+        routes.put(path, route);
+        distinctRoutes.add(route);
+        return this;
+    }
+
+    /** Route for the path info (null for the servlet root), or null if there is none. */
+    public Route lookup(String path) {
+        return routes.get(path == null ? "/" : path);
+    }
+
+    /**
+     * Login check for a resolved route (null for an unknown path). Redirects to the login page and returns
+     * false if the route needs the portal's session user and there is none. Unknown paths need a login too,
+     * so they reveal nothing to anonymous users.
+     */
+    public boolean authorize(HttpServletRequest req, HttpServletResponse resp, Route route) throws IOException {
+        if (route != null && !route.requiresLogin) {
+            return true;
+        }
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute(sessionAttribute) == null) {
+            resp.sendRedirect(req.getContextPath() + loginPath);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the request's route: the one AuthFilter resolved and authorized, or a fresh lookup and login
+     * check if the filter did not run. 404 for unknown paths, 405 with an Allow header for methods the
+     * route does not accept, 503 with Retry-After when the portal's admission budget is exhausted.
+     * The handler itself runs through AsyncDispatch.
+     */
+    public void dispatch(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        Route route = (Route) req.getAttribute(ROUTE_ATTRIBUTE);
+        if (route == null) {
+            route = lookup(req.getPathInfo());
+            if (!authorize(req, resp, route)) {
+                return;
+            }
+        }
+        if (route == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!route.methods.contains(req.getMethod())) {
+            resp.setHeader("Allow", String.join(", ", route.methods));
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        AdmissionController budget = admission;
+        if (budget == null) {
+            AsyncDispatch.run(route, req, resp, null);
+            return;
+        }
+        if (!budget.tryAcquire()) {
+            resp.setHeader("Retry-After", String.valueOf(budget.getRetryAfterSeconds()));
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The " + portal + " portal is busy. Please retry shortly.");
+            return;
+        }
+        // The permit is held until the handler finishes, on whichever thread it runs
+        AsyncDispatch.run(route, req, resp, budget::release);
+    }
+
+    public String getPortal() {
+        return portal;
+    }
+
+    public String getSessionAttribute() {
+        return sessionAttribute;
+    }
+
+    public String getLoginPath() {
+        return loginPath;
+    }
+
+    /** The portal's admission budget, or null if it has none. */
+    public AdmissionController getAdmission() {
+        return admission;
+    }
+
+    /** Each route once, aliases not repeated, in declaration order. */
+    public Collection<Route> getRoutes() {
+        return Collections.unmodifiableList(distinctRoutes);
+    }
+
+    /** One declared route and its counters. */
+    public static class Route {
+        private final String portal;
+        private final String path;
+        private final Handler handler;
+        private final boolean requiresLogin;
+        private final Set<String> methods;
+
+        // Metrics
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Route(String portal, String path, Handler handler, boolean requiresLogin, String... methods) {
+            this.portal = portal;
+            this.path = path;
+            this.handler = handler;
+            this.requiresLogin = requiresLogin;
+            this.methods = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(methods)));
+        }
+
+        void invoke(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                handler.handle(req, resp);
+                failed = false;
+            } finally {
+                latency.record(System.nanoTime() - start, failed || resp.getStatus() >= 500);
+            }
+        }
+
+        public String getPortal() {
+            return portal;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isRequiresLogin() {
+            return requiresLogin;
+        }
+
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        // --- Metrics ---
+
+        /** Request count, error count and latency distribution; reset with the /metrics window. */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package servlet.customer;
 
+import servlet.RouteTable;
+
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -8,47 +10,24 @@ import java.io.IOException;
 
 public class CustomerRouter extends HttpServlet {
 
+    // Login is enforced by servlet.AuthFilter from this table
+    public static final RouteTable ROUTES = new RouteTable("customer", "customer", "/customer/login")
+            .admission(32, 48, 500) // Largest but least urgent traffic: shed quickly under load
+            .publicRoute("/login", LoginServlet::handle, "GET", "POST")
+            .route("/dashboard", DashboardServlet::handle, "GET", "POST") // Dashboard handles multiple actions via POST
+            .alias("/", "/dashboard")
+            .route("/grievance", GrievanceServlet::handle, "GET", "POST")
+            .route("/fd", FDServlet::handle, "GET", "POST")
+            .route("/statement", StatementServlet::handle, "GET")
+            .route("/logout", LogoutServlet::handle, "GET", "POST");
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        route(req, resp);
+        ROUTES.dispatch(req, resp);
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        route(req, resp);
-    }
-
-    private void route(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
-        String path = req.getPathInfo();
-        String contextPath = req.getContextPath();
-
-        // Basic Auth Check Filter (Simplified - Check if session exists)
-        // More robust filter would be separate, but for simplicity, check in router/servlets
-        boolean isLoggedIn = req.getSession(false) != null && req.getSession(false).getAttribute("customer") != null;
-
-        // Allow access to login regardless of session state
-        if ("/login".equals(path)) {
-            LoginServlet.handle(req, resp);
-            return;
-        }
-
-        // Redirect to login if trying to access protected pages without being logged in
-        if (!isLoggedIn && !"/login".equals(path)) {
-            System.out.println("CustomerRouter: Not logged in, redirecting to login.");
-            resp.sendRedirect(contextPath + "/customer/login");
-            return;
-        }
-
-        // Route logged-in users
-        if (path == null || path.equals("/") || "/dashboard".equals(path)) {
-             DashboardServlet.handle(req, resp); // Dashboard handles multiple actions via POST
-        } else if ("/grievance".equals(path)) {
-            GrievanceServlet.handle(req, resp);
-        } else if ("/logout".equals(path)) {
-            LogoutServlet.handle(req, resp);
-        } else {
-            System.out.println("CustomerRouter: Path not found: " + path);
-            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        ROUTES.dispatch(req, resp);
     }
-}
\ No newline at end of file
+}
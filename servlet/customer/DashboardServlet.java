@@ -2,9 +2,10 @@ package servlet.customer;
 
 import auth.AuthHelper;
 import db.CustomerDB;
+import db.TransferEngine;
 import model.Customer;
 import model.Loan;
-import model.Transaction;
+import model.TransactionPage;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -19,6 +20,9 @@ import java.util.Optional;
 
 public class DashboardServlet {
 
+    // Number of transactions shown per history page; older pages are loaded via ?before=<id>
+    private static final int TRANSACTIONS_PAGE_SIZE = 20;
+
     public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
         // Authentication Check (already done in Router, but good practice)
         HttpSession session = req.getSession(false);
@@ -45,7 +49,7 @@ public class DashboardServlet {
         // Fetch data
         double balance = CustomerDB.getCustomerBalance(accountNumber);
         List<Loan> activeLoans = CustomerDB.getActiveLoansForAccount(accountNumber);
-        List<Transaction> transactions = CustomerDB.getTransactionsForAccount(accountNumber);
+        TransactionPage transactionPage = CustomerDB.getTransactionsPage(accountNumber, parseCursor(req.getParameter("before")), TRANSACTIONS_PAGE_SIZE);
 
         // Calculate repayment amounts for loans
         Map<Integer, BigDecimal> loanRepayAmounts = new HashMap<>();
@@ -58,7 +62,8 @@ public class DashboardServlet {
         req.setAttribute("customer", customer); // Re-set just in case, though already in session
         req.setAttribute("balance", balance);
         req.setAttribute("loans", activeLoans);
-        req.setAttribute("transactions", transactions);
+        req.setAttribute("transactions", transactionPage.getTransactions());
+        req.setAttribute("nextCursor", transactionPage.getNextCursor()); // "Load older" link target, null on the last page
         req.setAttribute("loanRepayAmounts", loanRepayAmounts);
 
         // Forward to JSP
@@ -131,19 +136,13 @@ public class DashboardServlet {
             return;
         }
 
-        // Check sufficient balance
-        double currentBalance = CustomerDB.getCustomerBalance(fromAccountNumber);
-        if (currentBalance < amount) {
-            session.setAttribute("errorMessage", "Insufficient funds for transfer.");
-            resp.sendRedirect(req.getContextPath() + "/customer/dashboard");
-            return;
-        }
-
-        // Perform transfer
-        boolean success = CustomerDB.performTransfer(fromAccountNumber, toAccountNumber, amount);
+        // Perform transfer (balance check and both ledger rows are atomic inside the engine)
+        TransferEngine.Result result = CustomerDB.transfer(fromAccountNumber, toAccountNumber, amount);
 
-        if (success) {
+        if (result == TransferEngine.Result.SUCCESS) {
             session.setAttribute("successMessage", String.format("Successfully transferred %.2f to account %s.", amount, toAccountNumber));
+        } else if (result == TransferEngine.Result.INSUFFICIENT_FUNDS) {
+            session.setAttribute("errorMessage", "Insufficient funds for transfer.");
         } else {
             session.setAttribute("errorMessage", "Transfer failed. Please try again later.");
         }
@@ -245,4 +244,17 @@ public class DashboardServlet {
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
+
+    // Parses the "before" history cursor; anything missing or malformed means "newest page"
+    private static Integer parseCursor(String s) {
+        if (isBlank(s)) {
+            return null;
+        }
+        try {
+            int cursor = Integer.parseInt(s.trim());
+            return cursor > 0 ? cursor : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
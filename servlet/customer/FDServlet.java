@@ -0,0 +1,114 @@
+package servlet.customer;
+
+import db.CustomerDB;
+import db.FDEngine;
+import model.Customer;
+import model.FD;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public class FDServlet {
+
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // Authentication Check
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute("customer") == null) {
+            resp.sendRedirect(req.getContextPath() + "/customer/login");
+            return;
+        }
+
+        if ("GET".equalsIgnoreCase(req.getMethod())) {
+            handleGet(req, resp);
+        } else if ("POST".equalsIgnoreCase(req.getMethod())) {
+            handlePost(req, resp);
+        } else {
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private static void handleGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        HttpSession session = req.getSession();
+        Customer customer = (Customer) session.getAttribute("customer");
+        String accountNumber = customer.getAccountNumber();
+
+        // Accrued interest comes from the FD rows; nothing is computed per FD here
+        List<FD> fds = CustomerDB.getFDsForAccount(accountNumber);
+        req.setAttribute("fds", fds);
+        req.setAttribute("balance", CustomerDB.getCustomerBalance(accountNumber));
+        req.setAttribute("prematurePenaltyRate", FDEngine.PREMATURE_PENALTY_RATE);
+
+        req.getRequestDispatcher("/WEB-INF/pages/customer/fd.jsp").forward(req, resp);
+    }
+
+    private static void handlePost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        HttpSession session = req.getSession();
+        Customer customer = (Customer) session.getAttribute("customer");
+        String accountNumber = customer.getAccountNumber();
+        String action = req.getParameter("action");
+
+        if ("requestFD".equals(action)) {
+            handleRequestFD(req, session, accountNumber);
+        } else if ("closeFD".equals(action)) {
+            handleCloseFD(req, session, accountNumber);
+        } else {
+            session.setAttribute("errorMessage", "Invalid action specified.");
+        }
+        // Redirect back to GET to show success/error and the updated FD list
+        resp.sendRedirect(req.getContextPath() + "/customer/fd");
+    }
+
+    private static void handleRequestFD(HttpServletRequest req, HttpSession session, String accountNumber) {
+        String amountStr = req.getParameter("amount");
+        String yearsStr = req.getParameter("durationYears");
+        if (isBlank(amountStr) || isBlank(yearsStr)) {
+            session.setAttribute("errorMessage", "Please enter a valid FD amount and duration in years.");
+            return;
+        }
+
+        double amount;
+        int durationYears;
+        try {
+            amount = Double.parseDouble(amountStr);
+            durationYears = Integer.parseInt(yearsStr);
+            if (amount <= 0 || durationYears <= 0) throw new NumberFormatException();
+        } catch (NumberFormatException e) {
+            session.setAttribute("errorMessage", "Please enter a valid FD amount and duration in years.");
+            return;
+        }
+
+        if (CustomerDB.createFDRequest(accountNumber, amount, durationYears)) {
+            session.setAttribute("successMessage", "FD request submitted. It will be activated once a manager approves it.");
+        } else {
+            session.setAttribute("errorMessage", "Failed to submit FD request. Check that your balance covers the amount.");
+        }
+    }
+
+    private static void handleCloseFD(HttpServletRequest req, HttpSession session, String accountNumber) {
+        int fdId;
+        try {
+            fdId = Integer.parseInt(req.getParameter("fdId"));
+        } catch (NumberFormatException e) {
+            session.setAttribute("errorMessage", "Invalid FD ID format.");
+            return;
+        }
+
+        Optional<BigDecimal> payout = CustomerDB.closeFD(accountNumber, fdId);
+        if (payout.isPresent()) {
+            session.setAttribute("successMessage", "FD ID " + fdId + " closed. " + payout.get().toPlainString() + " credited to your account.");
+        } else {
+            session.setAttribute("errorMessage", "Failed to close FD ID " + fdId + ". It might not be active.");
+        }
+    }
+
+    // Helper method
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
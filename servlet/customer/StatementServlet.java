@@ -0,0 +1,197 @@
+package servlet.customer;
+
+import db.CustomerDB;
+import model.Customer;
+import model.Transaction;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Statement download: /customer/statement?from=YYYY-MM-DD&to=YYYY-MM-DD&format=csv|txt
+ * Rows are written as they are read, chunk by chunk, so memory use does not depend on the range.
+ */
+public class StatementServlet {
+
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // Authentication Check
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute("customer") == null) {
+            resp.sendRedirect(req.getContextPath() + "/customer/login");
+            return;
+        }
+        if (!"GET".equalsIgnoreCase(req.getMethod())) {
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        Customer customer = (Customer) session.getAttribute("customer");
+        String accountNumber = customer.getAccountNumber();
+
+        // Defaults: the last month up to today
+        LocalDate to;
+        LocalDate from;
+        try {
+            to = isBlank(req.getParameter("to")) ? LocalDate.now() : LocalDate.parse(req.getParameter("to").trim());
+            from = isBlank(req.getParameter("from")) ? to.minusMonths(1) : LocalDate.parse(req.getParameter("from").trim());
+        } catch (DateTimeParseException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Dates must be in YYYY-MM-DD format.");
+            return;
+        }
+        if (from.isAfter(to)) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "'from' must not be after 'to'.");
+            return;
+        }
+        boolean text = "txt".equalsIgnoreCase(req.getParameter("format"));
+
+        String fileName = "statement_" + accountNumber + "_" + from + "_" + to + (text ? ".txt" : ".csv");
+        resp.setContentType(text ? "text/plain" : "text/csv");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        PrintWriter out = resp.getWriter();
+        StatementFormat format = text ? new TextFormat(out, customer, from, to) : new CsvFormat(out);
+        try {
+            // 'to' is inclusive for the customer, so the query bound is the next day
+            CustomerDB.streamStatement(accountNumber, from.toString(), to.plusDays(1).toString(), format);
+            format.close();
+        } catch (SQLException e) {
+            System.err.println("Error streaming statement: " + e.getMessage());
+            if (!resp.isCommitted()) {
+                resp.reset();
+                resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not generate statement.");
+                return;
+            }
+            out.println("*** Statement incomplete: an error occurred while reading transactions. ***");
+        }
+        out.flush();
+    }
+
+    // Keeps the running balance; subclasses decide how lines look
+    private abstract static class StatementFormat implements CustomerDB.StatementHandler {
+        final PrintWriter out;
+        BigDecimal balance = BigDecimal.ZERO;
+        BigDecimal opening = BigDecimal.ZERO;
+
+        StatementFormat(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void opening(double openingBalance) {
+            opening = BigDecimal.valueOf(openingBalance).setScale(2, RoundingMode.HALF_UP);
+            balance = opening;
+            writeOpening();
+        }
+
+        @Override
+        public void row(Transaction t) {
+            // The row's account received the money if it is the to_acc side, otherwise it paid it
+            boolean credit = t.getAccountNumber().equals(t.getToAccount());
+            BigDecimal amount = BigDecimal.valueOf(t.getAmount()).setScale(2, RoundingMode.HALF_UP);
+            balance = credit ? balance.add(amount) : balance.subtract(amount);
+            writeRow(t, credit ? null : amount, credit ? amount : null);
+        }
+
+        abstract void writeOpening();
+
+        abstract void writeRow(Transaction t, BigDecimal debit, BigDecimal credit);
+
+        abstract void close();
+    }
+
+    private static class CsvFormat extends StatementFormat {
+        CsvFormat(PrintWriter out) {
+            super(out);
+        }
+
+        @Override
+        void writeOpening() {
+            out.println("date,type,counterparty,debit,credit,balance");
+            out.println(",Opening balance,,,," + opening.toPlainString());
+        }
+
+        @Override
+        void writeRow(Transaction t, BigDecimal debit, BigDecimal credit) {
+            out.println(t.getCreatedAt() + "," + csv(t.getType()) + "," + csv(counterparty(t)) + ","
+                    + (debit == null ? "" : debit.toPlainString()) + ","
+                    + (credit == null ? "" : credit.toPlainString()) + "," + balance.toPlainString());
+        }
+
+        @Override
+        void close() {
+            out.println(",Closing balance,,,," + balance.toPlainString());
+        }
+    }
+
+    private static class TextFormat extends StatementFormat {
+        private static final String ROW = "%-19s  %-26s  %-12s  %12s  %12s  %14s%n";
+        private final Customer customer;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        TextFormat(PrintWriter out, Customer customer, LocalDate from, LocalDate to) {
+            super(out);
+            this.customer = customer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        void writeOpening() {
+            out.println("Account statement");
+            out.println("Account: " + customer.getAccountNumber() + "    Name: " + customer.getName());
+            out.println("Period:  " + from + " to " + to);
+            out.println();
+            out.printf(ROW, "Date", "Type", "Counterparty", "Debit", "Credit", "Balance");
+            out.printf(ROW, "", "Opening balance", "", "", "", opening.toPlainString());
+        }
+
+        @Override
+        void writeRow(Transaction t, BigDecimal debit, BigDecimal credit) {
+            out.printf(ROW, t.getCreatedAt(), truncate(t.getType(), 26), truncate(counterparty(t), 12),
+                    debit == null ? "" : debit.toPlainString(),
+                    credit == null ? "" : credit.toPlainString(),
+                    balance.toPlainString());
+        }
+
+        @Override
+        void close() {
+            out.printf(ROW, "", "Closing balance", "", "", "", balance.toPlainString());
+        }
+    }
+
+    // The other account of a transfer; empty for deposits, withdrawals, loans and FDs
+    private static String counterparty(Transaction t) {
+        String other = t.getAccountNumber().equals(t.getToAccount()) ? t.getFromAccount() : t.getToAccount();
+        return other == null || other.equals(t.getAccountNumber()) ? "" : other;
+    }
+
+    private static String truncate(String s, int width) {
+        return s == null ? "" : (s.length() <= width ? s : s.substring(0, width));
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    // Helper method
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
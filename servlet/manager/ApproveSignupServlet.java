@@ -3,6 +3,8 @@ package servlet.manager;
 import auth.AuthHelper;
 import db.ManagerDB;
 import model.PartialSignup;
+import model.SignupApproval;
+import model.SignupDecisionResult;
 import model.Staff; // Manager is Staff
 
 import javax.servlet.ServletException;
@@ -10,10 +12,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ApproveSignupServlet {
 
+    private static final int MAX_BULK_ROWS = 1000;
+
      public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
         // Auth Check
         HttpSession session = req.getSession(false);
@@ -46,6 +51,10 @@ public class ApproveSignupServlet {
              req.setAttribute("successMessage", session.getAttribute("successMessage"));
             session.removeAttribute("successMessage");
         }
+        if (session.getAttribute("bulkResults") != null) {
+            req.setAttribute("bulkResults", session.getAttribute("bulkResults"));
+            session.removeAttribute("bulkResults");
+        }
 
 
         req.getRequestDispatcher("/WEB-INF/pages/manager/approve_signup.jsp").forward(req, resp);
@@ -53,9 +62,14 @@ public class ApproveSignupServlet {
 
      private static void handlePost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         HttpSession session = req.getSession();
-        String action = req.getParameter("decision"); // "approve" or "reject"
+        String action = req.getParameter("decision"); // "approve", "reject", "bulkApprove" or "bulkReject"
         String signupIdStr = req.getParameter("signupId");
 
+         if ("bulkApprove".equals(action) || "bulkReject".equals(action)) {
+             handleBulkDecision(req, resp, session, "bulkApprove".equals(action));
+             return;
+         }
+
          if (isBlank(action) || isBlank(signupIdStr)) {
              session.setAttribute("errorMessage", "Missing decision or signup ID.");
              resp.sendRedirect(req.getContextPath() + "/manager/approve_signup");
@@ -81,13 +95,13 @@ public class ApproveSignupServlet {
              resp.sendRedirect(req.getContextPath() + "/manager/approve_signup"); // Redirect back to GET
 
          } else if ("approve".equals(action)) {
-             // Get approval details from form
+             // Get approval details from form; a blank account number is generated by the allocator
              String accountNumber = req.getParameter("accountNumber");
              String password = req.getParameter("initialPassword");
              String depositStr = req.getParameter("initialDeposit");
 
-             if (isBlank(accountNumber) || isBlank(password) || isBlank(depositStr)) {
-                 session.setAttribute("errorMessage", "Account number, initial password, and initial deposit are required for approval (Signup ID: " + signupId + ").");
+             if (isBlank(password) || isBlank(depositStr)) {
+                 session.setAttribute("errorMessage", "Initial password and initial deposit are required for approval (Signup ID: " + signupId + ").");
                  resp.sendRedirect(req.getContextPath() + "/manager/approve_signup");
                  return;
              }
@@ -106,15 +120,13 @@ public class ApproveSignupServlet {
              String passwordHash = AuthHelper.hashPassword(password);
 
              // Perform the approval transaction in DB
-             boolean success = ManagerDB.approveSignup(signupId, accountNumber.trim(), passwordHash, initialDeposit);
+             SignupDecisionResult result = ManagerDB.approveSignups(List.of(
+                     new SignupApproval(signupId, isBlank(accountNumber) ? null : accountNumber.trim(), passwordHash, initialDeposit))).get(0);
 
-             if (success) {
-                 session.setAttribute("successMessage", "Signup request ID " + signupId + " approved. Customer account " + accountNumber + " created.");
+             if (result.isSuccess()) {
+                 session.setAttribute("successMessage", "Signup request ID " + signupId + " approved. Customer account " + result.getAccountNumber() + " created.");
              } else {
-                  // Specific error message might have been set by ManagerDB, check session first
-                 if (session.getAttribute("errorMessage") == null) {
-                    session.setAttribute("errorMessage", "Failed to approve signup request ID " + signupId + ". Account number might already exist or another error occurred.");
-                 }
+                 session.setAttribute("errorMessage", "Failed to approve signup request ID " + signupId + ": " + result.getMessage());
              }
              resp.sendRedirect(req.getContextPath() + "/manager/approve_signup"); // Redirect back to GET
          } else {
@@ -123,6 +135,78 @@ public class ApproveSignupServlet {
          }
     }
 
+     // Bulk decision over the checked rows: signupIds=<id>&signupIds=<id>..., and for approvals
+     // initialPassword_<id>, initialDeposit_<id> and optionally accountNumber_<id> (blank = generated) per row
+     private static void handleBulkDecision(HttpServletRequest req, HttpServletResponse resp, HttpSession session, boolean approve) throws IOException {
+         String[] idParams = req.getParameterValues("signupIds");
+         if (idParams == null || idParams.length == 0) {
+             session.setAttribute("errorMessage", "No signup requests selected.");
+             resp.sendRedirect(req.getContextPath() + "/manager/approve_signup");
+             return;
+         }
+         if (idParams.length > MAX_BULK_ROWS) {
+             session.setAttribute("errorMessage", "At most " + MAX_BULK_ROWS + " signup requests can be processed at once.");
+             resp.sendRedirect(req.getContextPath() + "/manager/approve_signup");
+             return;
+         }
+
+         List<SignupDecisionResult> results = new ArrayList<>();
+         List<Integer> rejectIds = new ArrayList<>();
+         List<SignupApproval> approvals = new ArrayList<>();
+         for (String idParam : idParams) {
+             int signupId;
+             try {
+                 signupId = Integer.parseInt(idParam.trim());
+             } catch (NumberFormatException e) {
+                 results.add(new SignupDecisionResult(0, null, false, "Invalid signup ID format: " + idParam));
+                 continue;
+             }
+             if (!approve) {
+                 rejectIds.add(signupId);
+                 continue;
+             }
+
+             String accountNumber = req.getParameter("accountNumber_" + signupId);
+             String password = req.getParameter("initialPassword_" + signupId);
+             String depositStr = req.getParameter("initialDeposit_" + signupId);
+             if (isBlank(password) || isBlank(depositStr)) {
+                 results.add(new SignupDecisionResult(signupId, accountNumber, false, "Initial password and initial deposit are required."));
+                 continue;
+             }
+             double initialDeposit;
+             try {
+                 initialDeposit = Double.parseDouble(depositStr);
+                 if (initialDeposit < 0) throw new NumberFormatException();
+             } catch (NumberFormatException e) {
+                 results.add(new SignupDecisionResult(signupId, accountNumber, false, "Invalid initial deposit amount."));
+                 continue;
+             }
+             approvals.add(new SignupApproval(signupId, isBlank(accountNumber) ? null : accountNumber.trim(), AuthHelper.hashPassword(password), initialDeposit));
+         }
+
+         if (approve && !approvals.isEmpty()) {
+             results.addAll(ManagerDB.approveSignups(approvals));
+         } else if (!approve && !rejectIds.isEmpty()) {
+             results.addAll(ManagerDB.rejectSignups(rejectIds));
+         }
+
+         int succeeded = 0;
+         for (SignupDecisionResult result : results) {
+             if (result.isSuccess()) {
+                 succeeded++;
+             }
+         }
+         // Per-row outcomes for the page to list under the summary
+         session.setAttribute("bulkResults", results);
+         String summary = (approve ? "Approved " : "Rejected ") + succeeded + " of " + results.size() + " signup request(s).";
+         if (succeeded == results.size()) {
+             session.setAttribute("successMessage", summary);
+         } else {
+             session.setAttribute("errorMessage", summary + " See the per-row results for the ones that failed.");
+         }
+         resp.sendRedirect(req.getContextPath() + "/manager/approve_signup");
+     }
+
      // Helper method
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
@@ -1,8 +1,10 @@
 package servlet.manager;
 
 import auth.AuthHelper;
+import db.AnalyticsDB;
 import db.ManagerDB;
 import db.CustomerDB; // Needed to check if customer exists for loan
+import db.LoanValuationJob;
 import model.Staff; // Manager is Staff
 
 import javax.servlet.ServletException;
@@ -10,9 +12,15 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
 
 public class DashboardServlet {
 
+    private static final int DEFAULT_ANALYTICS_DAYS = 30;
+    private static final int MAX_ANALYTICS_DAYS = 366;
+    private static final int ANALYTICS_HOURS = 48;
+
     public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
         // Auth Check
         HttpSession session = req.getSession(false);
@@ -32,6 +40,14 @@ public class DashboardServlet {
 
     private static void handleGet(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
+        // Analytics: read from the roll-up tables, never from the ledger itself
+        int days = parseDays(req.getParameter("days"));
+        req.setAttribute("analyticsDays", days);
+        req.setAttribute("dailyStats", AnalyticsDB.getDailyStats(days));
+        req.setAttribute("hourlyStats", AnalyticsDB.getHourlyStats(ANALYTICS_HOURS));
+        req.setAttribute("grievanceBacklog", AnalyticsDB.getGrievanceBacklog());
+        req.setAttribute("analyticsUpdatedAt", AnalyticsDB.getLastRollupAt());
+
         // Forward to dashboard JSP
         System.out.println("Dashboard servlet GET Handler.");
         req.getRequestDispatcher("/WEB-INF/pages/manager/dashboard.jsp").forward(req, resp);
@@ -62,6 +78,9 @@ public class DashboardServlet {
             case "changePassword":
                 handleChangePassword(req, resp, session, manager);
                 break;
+            case "runLoanValuation":
+                handleRunLoanValuation(req, resp, session);
+                break;
             default:
                 session.setAttribute("errorMessage", "Unknown manager action.");
                 resp.sendRedirect(req.getContextPath() + "/manager/dashboard");
@@ -121,6 +140,19 @@ public class DashboardServlet {
 
     }
 
+    // Values the whole loan book as of today into the Loan_Valuation snapshot table
+    private static void handleRunLoanValuation(HttpServletRequest req, HttpServletResponse resp, HttpSession session)
+            throws IOException {
+        try {
+            LoanValuationJob.Summary summary = LoanValuationJob.run(LocalDate.now());
+            session.setAttribute("successMessage", summary.toString());
+        } catch (SQLException e) {
+            System.err.println("Error running loan valuation: " + e.getMessage());
+            session.setAttribute("errorMessage", "Loan valuation failed. Please try again later.");
+        }
+        resp.sendRedirect(req.getContextPath() + "/manager/dashboard");
+    }
+
     private static void handleChangeName(HttpServletRequest req, HttpServletResponse resp, HttpSession session,
             Staff manager) throws IOException {
         String newName = req.getParameter("newName");
@@ -221,6 +253,18 @@ public class DashboardServlet {
         resp.sendRedirect(req.getContextPath() + "/manager/dashboard");
     }
 
+    // Days of daily stats from ?days=, clamped to 1..MAX_ANALYTICS_DAYS
+    private static int parseDays(String days) {
+        if (isBlank(days)) {
+            return DEFAULT_ANALYTICS_DAYS;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_ANALYTICS_DAYS, Integer.parseInt(days.trim())));
+        } catch (NumberFormatException e) {
+            return DEFAULT_ANALYTICS_DAYS;
+        }
+    }
+
     // Helper method
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
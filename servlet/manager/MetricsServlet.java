@@ -0,0 +1,287 @@
+package servlet.manager;
+
+import db.ConnectionPool;
+import db.CustomerCache;
+import db.DatabaseUtil;
+import db.DbMetrics;
+import db.LatencyHistogram;
+import db.LedgerWriter;
+import servlet.AdmissionController;
+import servlet.AsyncDispatch;
+import servlet.AuthFilter;
+import servlet.RouteTable;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Manager-only metrics in the Prometheus text format (version 0.0.4): per-method DB latency
+ * histograms, per-route request timing, and the connection pool, ledger writer, customer cache,
+ * admission and async dispatch counters.
+ * GET renders the current window. POST action=reset renders it one last time and then starts a new
+ * window for the DB method and route histograms; the other counters are cumulative and never reset.
+ */
+public class MetricsServlet {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // Auth Check
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute("manager") == null) {
+            resp.sendRedirect(req.getContextPath() + "/manager/login");
+            return;
+        }
+
+        if ("GET".equalsIgnoreCase(req.getMethod())) {
+            resp.setContentType(CONTENT_TYPE);
+            resp.setHeader("Cache-Control", "no-store");
+            writeMetrics(resp.getWriter());
+        } else if ("POST".equalsIgnoreCase(req.getMethod())) {
+            if (!"reset".equals(req.getParameter("action"))) {
+                resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action.");
+                return;
+            }
+            resp.setContentType(CONTENT_TYPE);
+            resp.setHeader("Cache-Control", "no-store");
+            writeMetrics(resp.getWriter()); // The window being closed, so nothing recorded in it is lost
+            resetWindow();
+            System.out.println("Metrics window reset by manager.");
+        } else {
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private static void resetWindow() {
+        DbMetrics.reset();
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            for (RouteTable.Route route : table.getRoutes()) {
+                route.getLatency().reset();
+            }
+        }
+    }
+
+    private static void writeMetrics(PrintWriter out) {
+        out.println("# Window started at " + DbMetrics.getWindowStartMillis() + " ms since the epoch");
+        gauge(out, "simplebank_metrics_window_start_seconds", "Start of the current DB and route metrics window.");
+        out.println("simplebank_metrics_window_start_seconds " + DbMetrics.getWindowStartMillis() / 1000.0);
+
+        writeDbMethods(out);
+        writeRoutes(out);
+        writePool(out);
+        writeLedgerWriter(out);
+        writeCustomerCache(out);
+        writeAdmission(out);
+        writeAsync(out);
+        out.flush();
+    }
+
+    // --- DB methods ---
+
+    private static void writeDbMethods(PrintWriter out) {
+        Map<String, LatencyHistogram> methods = DbMetrics.getMethods();
+        String[] labels = new String[methods.size()];
+        LatencyHistogram.Snapshot[] snapshots = new LatencyHistogram.Snapshot[methods.size()];
+        int i = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : methods.entrySet()) {
+            labels[i] = "method=\"" + escape(entry.getKey()) + "\"";
+            snapshots[i] = entry.getValue().snapshot();
+            i++;
+        }
+        writeHistograms(out, "simplebank_db_method", "DB method", labels, snapshots);
+    }
+
+    // --- Routes ---
+
+    private static void writeRoutes(PrintWriter out) {
+        int size = 0;
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            size += table.getRoutes().size();
+        }
+        String[] labels = new String[size];
+        LatencyHistogram.Snapshot[] snapshots = new LatencyHistogram.Snapshot[size];
+        int i = 0;
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            for (RouteTable.Route route : table.getRoutes()) {
+                labels[i] = "portal=\"" + escape(route.getPortal()) + "\",path=\"" + escape(route.getPath()) + "\"";
+                snapshots[i] = route.getLatency().snapshot();
+                i++;
+            }
+        }
+        writeHistograms(out, "simplebank_route", "Portal route", labels, snapshots);
+    }
+
+    /** Calls, errors, latency histogram, quantiles and max for each labelled series under one prefix. */
+    private static void writeHistograms(PrintWriter out, String prefix, String what, String[] labels,
+                                        LatencyHistogram.Snapshot[] snapshots) {
+        counter(out, prefix + "_calls_total", what + " calls in the current window.");
+        for (int i = 0; i < labels.length; i++) {
+            out.println(prefix + "_calls_total{" + labels[i] + "} " + snapshots[i].getCount());
+        }
+        counter(out, prefix + "_errors_total", what + " calls that failed in the current window.");
+        for (int i = 0; i < labels.length; i++) {
+            out.println(prefix + "_errors_total{" + labels[i] + "} " + snapshots[i].getErrors());
+        }
+
+        String histogram = prefix + "_latency_seconds";
+        out.println("# HELP " + histogram + " " + what + " latency in the current window.");
+        out.println("# TYPE " + histogram + " histogram");
+        for (int i = 0; i < labels.length; i++) {
+            LatencyHistogram.Snapshot s = snapshots[i];
+            for (double bound : LatencyHistogram.EXPORT_BOUNDS_SECONDS) {
+                out.println(histogram + "_bucket{" + labels[i] + ",le=\"" + plain(bound) + "\"} "
+                        + s.getCountAtOrBelow(bound));
+            }
+            out.println(histogram + "_bucket{" + labels[i] + ",le=\"+Inf\"} " + s.getCount());
+            out.println(histogram + "_sum{" + labels[i] + "} " + s.getSumSeconds());
+            out.println(histogram + "_count{" + labels[i] + "} " + s.getCount());
+        }
+
+        gauge(out, prefix + "_latency_quantile_seconds", what + " latency percentiles in the current window.");
+        for (int i = 0; i < labels.length; i++) {
+            for (double q : QUANTILES) {
+                out.println(prefix + "_latency_quantile_seconds{" + labels[i] + ",quantile=\"" + plain(q) + "\"} "
+                        + snapshots[i].getQuantileSeconds(q));
+            }
+        }
+        gauge(out, prefix + "_latency_max_seconds", "Slowest " + what + " call in the current window.");
+        for (int i = 0; i < labels.length; i++) {
+            out.println(prefix + "_latency_max_seconds{" + labels[i] + "} " + snapshots[i].getMaxSeconds());
+        }
+    }
+
+    // --- Infrastructure ---
+
+    private static void writePool(PrintWriter out) {
+        ConnectionPool pool;
+        try {
+            pool = DatabaseUtil.getPool();
+        } catch (SQLException e) {
+            System.err.println("Error reading connection pool metrics: " + e.getMessage());
+            return;
+        }
+        gauge(out, "simplebank_pool_connections", "Pooled connections by state.");
+        out.println("simplebank_pool_connections{state=\"active\"} " + pool.getActiveCount());
+        out.println("simplebank_pool_connections{state=\"idle\"} " + pool.getIdleCount());
+        gauge(out, "simplebank_pool_max_connections", "Configured pool size.");
+        out.println("simplebank_pool_max_connections " + pool.getMaxSize());
+        gauge(out, "simplebank_pool_waiters", "Threads waiting for a connection.");
+        out.println("simplebank_pool_waiters " + pool.getWaiterCount());
+        counter(out, "simplebank_pool_borrows_total", "Connections handed out.");
+        out.println("simplebank_pool_borrows_total " + pool.getBorrowCount());
+        counter(out, "simplebank_pool_wait_seconds_total", "Time spent waiting for a connection.");
+        out.println("simplebank_pool_wait_seconds_total " + pool.getTotalWaitMillis() / 1000.0);
+        gauge(out, "simplebank_pool_max_wait_seconds", "Longest wait for a connection.");
+        out.println("simplebank_pool_max_wait_seconds " + pool.getMaxWaitMillis() / 1000.0);
+        counter(out, "simplebank_pool_timeouts_total", "Borrows that timed out.");
+        out.println("simplebank_pool_timeouts_total " + pool.getTimeoutCount());
+        counter(out, "simplebank_pool_validation_failures_total", "Connections discarded after failing validation.");
+        out.println("simplebank_pool_validation_failures_total " + pool.getValidationFailureCount());
+    }
+
+    private static void writeLedgerWriter(PrintWriter out) {
+        gauge(out, "simplebank_ledger_queue_depth", "Ledger writes waiting for the writer thread.");
+        out.println("simplebank_ledger_queue_depth " + LedgerWriter.getQueueDepth());
+        counter(out, "simplebank_ledger_batches_total", "Ledger group commits.");
+        out.println("simplebank_ledger_batches_total " + LedgerWriter.getBatchCount());
+        counter(out, "simplebank_ledger_writes_total", "Ledger writes committed or failed.");
+        out.println("simplebank_ledger_writes_total " + LedgerWriter.getWriteCount());
+        counter(out, "simplebank_ledger_failed_writes_total", "Ledger writes that failed.");
+        out.println("simplebank_ledger_failed_writes_total " + LedgerWriter.getFailedWriteCount());
+        gauge(out, "simplebank_ledger_max_batch_size", "Largest group commit.");
+        out.println("simplebank_ledger_max_batch_size " + LedgerWriter.getMaxBatchSize());
+        gauge(out, "simplebank_ledger_commit_avg_seconds", "Average group commit time.");
+        out.println("simplebank_ledger_commit_avg_seconds " + LedgerWriter.getAverageCommitMillis() / 1000.0);
+        gauge(out, "simplebank_ledger_commit_max_seconds", "Slowest group commit.");
+        out.println("simplebank_ledger_commit_max_seconds " + LedgerWriter.getMaxCommitMillis() / 1000.0);
+    }
+
+    private static void writeCustomerCache(PrintWriter out) {
+        gauge(out, "simplebank_customer_cache_entries", "Entries in the customer cache.");
+        out.println("simplebank_customer_cache_entries " + CustomerCache.getSize());
+        counter(out, "simplebank_customer_cache_requests_total", "Customer cache lookups by result.");
+        out.println("simplebank_customer_cache_requests_total{result=\"hit\"} " + CustomerCache.getHitCount());
+        out.println("simplebank_customer_cache_requests_total{result=\"negative_hit\"} " + CustomerCache.getNegativeHitCount());
+        out.println("simplebank_customer_cache_requests_total{result=\"miss\"} " + CustomerCache.getMissCount());
+        counter(out, "simplebank_customer_cache_evictions_total", "Entries evicted to stay within maxEntries.");
+        out.println("simplebank_customer_cache_evictions_total " + CustomerCache.getEvictionCount());
+        counter(out, "simplebank_customer_cache_invalidations_total", "Entries dropped after a customer update.");
+        out.println("simplebank_customer_cache_invalidations_total " + CustomerCache.getInvalidationCount());
+    }
+
+    private static void writeAdmission(PrintWriter out) {
+        gauge(out, "simplebank_admission_active", "Requests holding a portal permit.");
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            AdmissionController a = table.getAdmission();
+            if (a != null) {
+                out.println("simplebank_admission_active{portal=\"" + escape(a.getPortal()) + "\"} " + a.getActive());
+            }
+        }
+        gauge(out, "simplebank_admission_waiting", "Requests queued for a portal permit.");
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            AdmissionController a = table.getAdmission();
+            if (a != null) {
+                out.println("simplebank_admission_waiting{portal=\"" + escape(a.getPortal()) + "\"} " + a.getWaiting());
+            }
+        }
+        counter(out, "simplebank_admission_requests_total", "Portal admission decisions by outcome.");
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            AdmissionController a = table.getAdmission();
+            if (a != null) {
+                String portal = "portal=\"" + escape(a.getPortal()) + "\"";
+                out.println("simplebank_admission_requests_total{" + portal + ",outcome=\"admitted\"} " + a.getAdmittedCount());
+                out.println("simplebank_admission_requests_total{" + portal + ",outcome=\"queued\"} " + a.getQueuedCount());
+                out.println("simplebank_admission_requests_total{" + portal + ",outcome=\"shed\"} " + a.getShedCount());
+            }
+        }
+        gauge(out, "simplebank_admission_queue_max_seconds", "Longest wait for a portal permit.");
+        for (RouteTable table : AuthFilter.getRouteTables()) {
+            AdmissionController a = table.getAdmission();
+            if (a != null) {
+                out.println("simplebank_admission_queue_max_seconds{portal=\"" + escape(a.getPortal()) + "\"} "
+                        + a.getMaxQueueMillis() / 1000.0);
+            }
+        }
+    }
+
+    private static void writeAsync(PrintWriter out) {
+        gauge(out, "simplebank_async_enabled", "1 if routes run asynchronously (web.async.enabled).");
+        out.println("simplebank_async_enabled " + (AsyncDispatch.isEnabled() ? 1 : 0));
+        gauge(out, "simplebank_async_in_flight", "Async requests currently running.");
+        out.println("simplebank_async_in_flight " + AsyncDispatch.getInFlight());
+        counter(out, "simplebank_async_requests_total", "Requests by how they were dispatched.");
+        out.println("simplebank_async_requests_total{mode=\"async\"} " + AsyncDispatch.getAsyncRequestCount());
+        out.println("simplebank_async_requests_total{mode=\"sync_fallback\"} " + AsyncDispatch.getSyncFallbackCount());
+        out.println("simplebank_async_requests_total{mode=\"rejected\"} " + AsyncDispatch.getRejectedCount());
+        out.println("simplebank_async_requests_total{mode=\"timed_out\"} " + AsyncDispatch.getTimeoutCount());
+    }
+
+    // --- Text format helpers ---
+
+    private static void counter(PrintWriter out, String name, String help) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " counter");
+    }
+
+    private static void gauge(PrintWriter out, String name, String help) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " gauge");
+    }
+
+    // 0.0001 rather than 1.0E-4, as Prometheus clients print bucket bounds
+    private static String plain(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
\ No newline at end of file
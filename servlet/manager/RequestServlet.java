@@ -0,0 +1,110 @@
+package servlet.manager;
+
+import db.RequestDB;
+import model.RequestPage;
+import model.Staff; // Manager is Staff
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+public class RequestServlet {
+
+    private static final int REQUESTS_PAGE_SIZE = 50;
+
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // Auth Check
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute("manager") == null) {
+            resp.sendRedirect(req.getContextPath() + "/manager/login");
+            return;
+        }
+
+        if ("GET".equalsIgnoreCase(req.getMethod())) {
+            handleGet(req, resp);
+        } else if ("POST".equalsIgnoreCase(req.getMethod())) {
+            handlePost(req, resp);
+        } else {
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private static void handleGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        // Filters: ?status=Pending|Approved|Rejected (default Pending), ?type=Loan|FD|DetailChange, ?after=<cursor>
+        String status = isBlank(req.getParameter("status")) ? "Pending" : req.getParameter("status").trim();
+        String type = isBlank(req.getParameter("type")) ? null : req.getParameter("type").trim();
+        Integer afterId = parseCursor(req.getParameter("after"));
+
+        RequestPage page = RequestDB.getRequestsPage(status, type, afterId, REQUESTS_PAGE_SIZE);
+        req.setAttribute("requests", page.getRequests());
+        req.setAttribute("nextCursor", page.getNextCursor());
+        req.setAttribute("statusFilter", status);
+        req.setAttribute("typeFilter", type);
+
+        // Check for messages from previous POST requests
+        HttpSession session = req.getSession();
+        if (session.getAttribute("errorMessage") != null) {
+            req.setAttribute("errorMessage", session.getAttribute("errorMessage"));
+            session.removeAttribute("errorMessage");
+        }
+        if (session.getAttribute("successMessage") != null) {
+            req.setAttribute("successMessage", session.getAttribute("successMessage"));
+            session.removeAttribute("successMessage");
+        }
+
+        req.getRequestDispatcher("/WEB-INF/pages/manager/requests.jsp").forward(req, resp);
+    }
+
+    private static void handlePost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        HttpSession session = req.getSession();
+        Staff manager = (Staff) session.getAttribute("manager");
+        String action = req.getParameter("decision"); // "approve" or "reject"
+        String requestIdStr = req.getParameter("requestId");
+        String remarks = isBlank(req.getParameter("remarks")) ? null : req.getParameter("remarks").trim();
+
+        int requestId;
+        try {
+            requestId = Integer.parseInt(requestIdStr);
+        } catch (NumberFormatException e) {
+            session.setAttribute("errorMessage", "Invalid request ID format.");
+            resp.sendRedirect(req.getContextPath() + "/manager/requests");
+            return;
+        }
+
+        if ("approve".equals(action)) {
+            if (RequestDB.approveRequest(requestId, manager.getMobile(), remarks)) {
+                session.setAttribute("successMessage", "Request ID " + requestId + " approved.");
+            } else {
+                session.setAttribute("errorMessage", "Failed to approve request ID " + requestId + ". It might have been already processed, or the customer's balance is insufficient.");
+            }
+        } else if ("reject".equals(action)) {
+            if (RequestDB.rejectRequest(requestId, manager.getMobile(), remarks)) {
+                session.setAttribute("successMessage", "Request ID " + requestId + " rejected.");
+            } else {
+                session.setAttribute("errorMessage", "Failed to reject request ID " + requestId + ". It might have been already processed.");
+            }
+        } else {
+            session.setAttribute("errorMessage", "Invalid decision specified.");
+        }
+        resp.sendRedirect(req.getContextPath() + "/manager/requests"); // Redirect back to GET
+    }
+
+    // Cursor from the "after" parameter; null (first page) when absent or malformed
+    private static Integer parseCursor(String after) {
+        if (isBlank(after)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(after.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Helper method
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
@@ -2,7 +2,11 @@ package servlet.staff;
 
 import auth.AuthHelper;
 import db.CustomerDB;
+import db.RequestDB;
 import db.StaffDB;
+import model.DetailChangeRequestData;
+import model.FDRequestData;
+import model.LoanRequestData;
 import model.Staff;
 import model.Customer; // Needed for checks
 
@@ -68,6 +72,11 @@ public class DashboardServlet {
             case "changePassword":
                 handleChangePassword(req, resp, session, staff);
                 break;
+            case "requestLoan":
+            case "requestFD":
+            case "requestDetailChange":
+                handleEnqueueRequest(req, resp, session, staff, action);
+                break;
             default:
                 session.setAttribute("errorMessage", "Unknown staff action.");
                 resp.sendRedirect(req.getContextPath() + "/staff/dashboard");
@@ -239,6 +248,62 @@ public class DashboardServlet {
     }
 
 
+      // Queues a loan, FD or detail-change request for manager approval (see manager/requests)
+      private static void handleEnqueueRequest(HttpServletRequest req, HttpServletResponse resp, HttpSession session, Staff staff, String action) throws IOException {
+         String accountNumber = req.getParameter("accountNumber");
+         if (isBlank(accountNumber)) {
+            session.setAttribute("errorMessage", "Account number is required for a request.");
+            resp.sendRedirect(req.getContextPath() + "/staff/dashboard");
+            return;
+         }
+         accountNumber = accountNumber.trim();
+
+         boolean success;
+         try {
+             if ("requestDetailChange".equals(action)) {
+                 DetailChangeRequestData data = new DetailChangeRequestData(
+                         blankToNull(req.getParameter("newName")),
+                         blankToNull(req.getParameter("newEmail")),
+                         blankToNull(req.getParameter("newMobile")));
+                 success = RequestDB.enqueueDetailChangeRequest(accountNumber, staff.getMobile(), data);
+             } else {
+                 String amountStr = req.getParameter("amount");
+                 String interestRateStr = req.getParameter("interestRate");
+                 String durationYearsStr = req.getParameter("durationYears");
+                 if (isBlank(amountStr) || isBlank(interestRateStr) || isBlank(durationYearsStr)) {
+                     session.setAttribute("errorMessage", "Amount, interest rate and duration are required.");
+                     resp.sendRedirect(req.getContextPath() + "/staff/dashboard");
+                     return;
+                 }
+                 double amount = Double.parseDouble(amountStr);
+                 double interestRate = Double.parseDouble(interestRateStr);
+                 int durationYears = Integer.parseInt(durationYearsStr.trim());
+                 if ("requestLoan".equals(action)) {
+                     success = RequestDB.enqueueLoanRequest(accountNumber, staff.getMobile(), new LoanRequestData(amount, interestRate, durationYears));
+                 } else {
+                     success = RequestDB.enqueueFDRequest(accountNumber, staff.getMobile(), new FDRequestData(amount, interestRate, durationYears));
+                 }
+             }
+         } catch (NumberFormatException e) {
+             session.setAttribute("errorMessage", "Invalid amount, interest rate or duration.");
+             resp.sendRedirect(req.getContextPath() + "/staff/dashboard");
+             return;
+         }
+
+         if (success) {
+            session.setAttribute("successMessage", "Request for account " + accountNumber + " submitted for manager approval.");
+        } else {
+            session.setAttribute("errorMessage", "Failed to submit request. Check the account number and details.");
+        }
+        resp.sendRedirect(req.getContextPath() + "/staff/dashboard");
+     }
+
+
+     // Helper method
+    private static String blankToNull(String s) {
+        return isBlank(s) ? null : s.trim();
+    }
+
      // Helper method
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
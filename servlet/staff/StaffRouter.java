@@ -1,51 +1,34 @@
 package servlet.staff;
 
+import servlet.RouteTable;
+
 import javax.servlet.ServletException;
+import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+// Multipart parsing for the teller sheet upload; other forms are unaffected
+@MultipartConfig(maxFileSize = 50 * 1024 * 1024)
 public class StaffRouter extends HttpServlet {
 
+    // Login is enforced by servlet.AuthFilter from this table
+    public static final RouteTable ROUTES = new RouteTable("staff", "staff", "/staff/login")
+            .admission(16, 24, 3000)
+            .publicRoute("/login", LoginServlet::handle, "GET", "POST")
+            .route("/dashboard", DashboardServlet::handle, "GET", "POST") // Dashboard handles multiple actions via POST
+            .alias("/", "/dashboard")
+            .route("/teller_upload", TellerUploadServlet::handle, "GET", "POST")
+            .route("/logout", LogoutServlet::handle, "GET", "POST");
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        route(req, resp);
+        ROUTES.dispatch(req, resp);
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        route(req, resp);
-    }
-
-    private void route(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
-        String path = req.getPathInfo();
-        String contextPath = req.getContextPath();
-
-        // Auth Check Filter (Simplified)
-        boolean isLoggedIn = req.getSession(false) != null && req.getSession(false).getAttribute("staff") != null;
-
-        // Allow access to login regardless of session state
-        if ("/login".equals(path)) {
-            LoginServlet.handle(req, resp);
-            return;
-        }
-
-        // Redirect to login if trying to access protected pages without being logged in
-        if (!isLoggedIn && !"/login".equals(path)) {
-            System.out.println("StaffRouter: Not logged in, redirecting to login.");
-            resp.sendRedirect(contextPath + "/staff/login");
-            return;
-        }
-
-        // Route logged-in users
-        if (path == null || path.equals("/") || "/dashboard".equals(path)) {
-             DashboardServlet.handle(req, resp); // Dashboard handles multiple actions via POST
-        } else if ("/logout".equals(path)) {
-            LogoutServlet.handle(req, resp);
-        } else {
-            System.out.println("StaffRouter: Path not found: " + path);
-            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        ROUTES.dispatch(req, resp);
     }
-}
\ No newline at end of file
+}
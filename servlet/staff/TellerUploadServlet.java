@@ -0,0 +1,59 @@
+package servlet.staff;
+
+import db.TellerIngestion;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.Part;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+public class TellerUploadServlet {
+
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // Auth Check
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute("staff") == null) {
+            resp.sendRedirect(req.getContextPath() + "/staff/login");
+            return;
+        }
+
+        if ("GET".equalsIgnoreCase(req.getMethod())) {
+            req.getRequestDispatcher("/WEB-INF/pages/staff/teller_upload.jsp").forward(req, resp);
+        } else if ("POST".equalsIgnoreCase(req.getMethod())) {
+            handlePost(req, resp, session);
+        } else {
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    // Streams the uploaded sheet through TellerIngestion and sends the per-line results back as a CSV download
+    private static void handlePost(HttpServletRequest req, HttpServletResponse resp, HttpSession session) throws IOException, ServletException {
+        Part file = req.getPart("file");
+        if (file == null || file.getSize() == 0) {
+            session.setAttribute("errorMessage", "Please choose a CSV file to upload.");
+            resp.sendRedirect(req.getContextPath() + "/staff/teller_upload");
+            return;
+        }
+
+        resp.setContentType("text/csv");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"teller_results.csv\"");
+        PrintWriter out = resp.getWriter();
+        try (Reader in = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            TellerIngestion.Summary summary = TellerIngestion.ingest(in, out);
+            out.println("# " + summary);
+        } catch (SQLException e) {
+            // Only thrown while preloading accounts, before any line is posted
+            System.err.println("Error ingesting teller file: " + e.getMessage());
+            out.println("# Stopped on database error: " + e.getMessage() + ". No lines were posted.");
+        }
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,623 @@
+package tools;
+
+import auth.AuthHelper;
+import db.AccountNumberAllocator;
+import db.DatabaseUtil;
+import db.LedgerWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Fills the configured database (db.url, see AppConfig) with synthetic customers, staff, ledger rows,
+ * loans, fixed deposits, grievances and signup requests, for benchmarks and load tests.
+ * Usage: java tools.DataGenerator [--customers=N] [--transactions=N] [--seed=N] ... (see DEFAULTS)
+ *
+ * Activity is skewed like a real book: dormantPercent of the new accounts only ever get their opening
+ * deposit, and the rest are picked with probability falling off as a power law (skew), so a few accounts
+ * carry a large share of the ledger. The ledger is generated in time order, loans and FDs included, and
+ * every debit (withdrawal, transfer, loan repayment, FD opening) is checked against the balance at that
+ * moment, so no account is ever negative at any point in its history. Account_Balance is kept
+ * in step with every commit, and account numbers come from AccountNumberAllocator, so the data passes
+ * tools.VerifyBalances and the application keeps working on it. Every new customer and staff member
+ * has the password "password".
+ *
+ * Rows are inserted with batched prepared statements, committed every commitEvery ledger rows.
+ * The same seed and end date give the same data. Run it while the application is stopped: it writes
+ * outside the ledger writer and reads the current maximum Loan and FD ids once.
+ */
+public class DataGenerator {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+    static {
+        DEFAULTS.put("customers", "10000");
+        DEFAULTS.put("transactions", "1000000");
+        DEFAULTS.put("staff", "20");
+        DEFAULTS.put("managers", "2");
+        DEFAULTS.put("loans", "2000");
+        DEFAULTS.put("fds", "5000");
+        DEFAULTS.put("grievances", "1000");
+        DEFAULTS.put("signups", "500");
+        DEFAULTS.put("dormantPercent", "70"); // Accounts with nothing but the opening deposit
+        DEFAULTS.put("skew", "3");            // Higher: activity more concentrated on the first accounts
+        DEFAULTS.put("days", "730");          // Ledger history ends on the end date and starts this many days before
+        DEFAULTS.put("end", "");              // YYYY-MM-DD, today if empty
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("batchSize", "1000");
+        DEFAULTS.put("commitEvery", "100000");
+    }
+
+    private static final String[] FIRST_NAMES = { "Aarav", "Priya", "Rahul", "Ananya", "Vikram", "Sneha", "Arjun",
+            "Kavya", "Rohan", "Meera", "Karan", "Isha", "Aditya", "Pooja", "Nikhil", "Divya", "Sanjay", "Neha" };
+    private static final String[] LAST_NAMES = { "Sharma", "Verma", "Patel", "Iyer", "Reddy", "Nair", "Gupta",
+            "Singh", "Das", "Mehta", "Rao", "Kapoor", "Joshi", "Menon", "Bose", "Chopra" };
+    private static final String[] COMPLAINTS = { "Transfer not reflected in balance.",
+            "Unable to download my statement.", "Loan repayment amount looks wrong.",
+            "FD interest differs from what was quoted.", "Mobile number update still pending.",
+            "Charged twice for one withdrawal." };
+    private static final String[] CITIES = { "Mumbai", "Pune", "Bengaluru", "Chennai", "Hyderabad", "Kolkata", "Delhi" };
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final int customers;
+    private final int transactions;
+    private final int staff;
+    private final int managers;
+    private final int loans;
+    private final int fds;
+    private final int grievances;
+    private final int signups;
+    private final int activeAccounts;
+    private final double skew;
+    private final int days;
+    private final LocalDate end;
+    private final int batchSize;
+    private final int commitEvery;
+    private final Random random;
+    private final String passwordHash = AuthHelper.hashPassword("password");
+
+    // Per generated account, in the order their Customer rows were inserted
+    private String[] accounts;
+    private double[] balances;
+    private double[] unsavedDeltas;  // Balance changes not yet written to Account_Balance
+    private int ledgerRows;
+    private int uncommittedRows;
+    private int loanRows;
+    private long scheduledEvents;  // Tie-breaker for events scheduled at the same second
+    private List<FDRecord> fdRecords;
+
+    private DataGenerator(Map<String, String> options) {
+        customers = intOption(options, "customers");
+        transactions = intOption(options, "transactions");
+        staff = intOption(options, "staff");
+        managers = intOption(options, "managers");
+        loans = intOption(options, "loans");
+        fds = intOption(options, "fds");
+        grievances = intOption(options, "grievances");
+        signups = intOption(options, "signups");
+        int dormantPercent = intOption(options, "dormantPercent");
+        skew = Double.parseDouble(options.get("skew"));
+        days = intOption(options, "days");
+        end = options.get("end").isEmpty() ? LocalDate.now() : LocalDate.parse(options.get("end"));
+        batchSize = intOption(options, "batchSize");
+        commitEvery = intOption(options, "commitEvery");
+        random = new Random(Long.parseLong(options.get("seed")));
+        if (customers < 1 || dormantPercent < 0 || dormantPercent > 100 || skew < 1 || days < 1
+                || batchSize < 1 || commitEvery < batchSize) {
+            throw new IllegalArgumentException("Need customers >= 1, dormantPercent 0-100, skew >= 1, days >= 1 "
+                    + "and commitEvery >= batchSize >= 1.");
+        }
+        activeAccounts = Math.max(1, customers - (int) ((long) customers * dormantPercent / 100));
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (key == null || !DEFAULTS.containsKey(key)) {
+                System.err.println("Usage: java tools.DataGenerator [--key=value ...], keys and defaults: " + DEFAULTS);
+                System.exit(2);
+            }
+            options.put(key, arg.substring(eq + 1));
+        }
+        int status = 0;
+        try {
+            new DataGenerator(options).run();
+        } catch (IllegalArgumentException | SQLException e) {
+            System.err.println("Data generation failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            LedgerWriter.shutdown();
+            DatabaseUtil.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private void run() throws SQLException {
+        long start = System.nanoTime();
+        System.out.println("Generating " + customers + " customers (" + activeAccounts + " active), "
+                + transactions + " transactions, history " + end.minusDays(days) + " to " + end);
+
+        // Before our transaction starts: reserving takes its own connection
+        accounts = AccountNumberAllocator.reserve(customers).toArray(new String[0]);
+        balances = new double[customers];
+        unsavedDeltas = new double[customers];
+        fdRecords = new ArrayList<>(fds);
+
+        Connection conn = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            insertStaff(conn);
+            insertCustomers(conn);
+            commit(conn);
+            insertLedger(conn);
+            insertFDs(conn);
+            insertGrievances(conn);
+            insertSignups(conn);
+            commit(conn);
+            analyze(conn);
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Error rolling back data generation: " + ex.getMessage());
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error restoring auto-commit: " + e.getMessage());
+                }
+            }
+            DatabaseUtil.closeQuietly(conn);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Generated " + ledgerRows + " ledger rows in " + millis + " ms ("
+                + (millis == 0 ? ledgerRows : ledgerRows * 1000L / millis) + " rows/s).");
+    }
+
+    // --- People ---
+
+    private void insertStaff(Connection conn) throws SQLException {
+        String sql = "INSERT INTO Staff (name, mobile, role, password) VALUES (?, ?, ?, ?)";
+        long firstMobile = 6_000_000_000L + nextId(conn, "Staff"); // Ids are never reused, so neither are mobiles
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < staff + managers; i++) {
+                pstmt.setString(1, name());
+                pstmt.setString(2, String.valueOf(firstMobile + i));
+                pstmt.setString(3, i < managers ? "MANAGER" : "STAFF");
+                pstmt.setString(4, passwordHash);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void insertCustomers(Connection conn) throws SQLException {
+        String sql = "INSERT INTO Customer (name, mobile, email, accountno, password) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < customers; i++) {
+                String digits = accounts[i].substring(3); // Serial + check digit: unique, so mobile and email are too
+                pstmt.setString(1, name());
+                pstmt.setString(2, "7" + digits);
+                pstmt.setString(3, random.nextInt(5) == 0 ? null : "c" + digits + "@example.com");
+                pstmt.setString(4, accounts[i]);
+                pstmt.setString(5, passwordHash);
+                pstmt.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void insertSignups(Connection conn) throws SQLException {
+        String sql = "INSERT INTO Partial_Signups (name, mobile, email, address, status, Timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+        long firstId = nextId(conn, "Partial_Signups");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < signups; i++) {
+                int roll = random.nextInt(20);
+                pstmt.setString(1, name());
+                pstmt.setString(2, String.valueOf(8_000_000_000L + (firstId + i) % 1_000_000_000L));
+                pstmt.setString(3, "s" + (firstId + i) + "@example.com");
+                pstmt.setString(4, (1 + random.nextInt(400)) + " Main Road, " + CITIES[random.nextInt(CITIES.length)]);
+                pstmt.setString(5, roll < 12 ? "Pending" : roll < 17 ? "Approved" : "Rejected");
+                pstmt.setString(6, timestamp(randomTime()));
+                pstmt.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void insertGrievances(Connection conn) throws SQLException {
+        String sql = "INSERT INTO Grievance (accno, complain, status, remarks, Timestamp) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < grievances; i++) {
+                int roll = random.nextInt(10);
+                String status = roll < 3 ? "Pending" : roll < 5 ? "In Process" : "Resolved";
+                pstmt.setString(1, accounts[activeAccount()]);
+                pstmt.setString(2, COMPLAINTS[random.nextInt(COMPLAINTS.length)]);
+                pstmt.setString(3, status);
+                pstmt.setString(4, "Resolved".equals(status) ? "Checked and corrected." : null);
+                pstmt.setString(5, timestamp(randomTime()));
+                pstmt.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // --- Ledger ---
+
+    /**
+     * Writes the whole ledger in time order: the opening deposits, then regular activity, loans and FD requests
+     * spread over the history, interleaved with the loan repayments and FD openings and closures they schedule
+     * for later. Every debit is checked against the account's balance at its own timestamp.
+     */
+    private void insertLedger(Connection conn) throws SQLException {
+        String txnSQL = "INSERT INTO Transactions (accno, amount, to_acc, from_acc, type, Timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+        String loanSQL = "INSERT INTO Loan (id, accno, amount, int_rate, date, duration) VALUES (?, ?, ?, ?, ?, ?)";
+        long firstLoanId = nextId(conn, "Loan");
+        long firstFDId = nextId(conn, "FD");
+        try (PreparedStatement pstmt = conn.prepareStatement(txnSQL);
+             PreparedStatement pstmtLoan = conn.prepareStatement(loanSQL)) {
+            // Opening deposits, in the year before the history starts
+            LocalDateTime historyStart = end.minusDays(days).atStartOfDay();
+            for (int i = 0; i < customers; i++) {
+                LocalDateTime opened = historyStart.minusSeconds(random.nextInt(365 * 86400));
+                ledger(conn, pstmt, i, amount(20_000, 500_000), i, -1, "Deposit", opened);
+            }
+
+            // One slot per regular ledger row, loan and FD request; loans and FDs land on random slots.
+            // Jitter stays inside a slot, so timestamps never go backwards.
+            long spanSeconds = (long) days * 86400;
+            long slots = (long) transactions + loans + fds;
+            long slotSeconds = slots == 0 ? 0 : spanSeconds / slots;
+            PriorityQueue<Scheduled> scheduled = new PriorityQueue<>();
+            LocalDateTime previous = historyStart;
+            int loansMade = 0;
+            int fdsMade = 0;
+            long slot = 0;
+            while (slot < slots || loansMade < loans || fdsMade < fds) {
+                LocalDateTime when = historyStart.plusSeconds(spanSeconds * Math.min(slot, slots - 1) / slots
+                        + (slotSeconds > 1 ? random.nextInt((int) Math.min(slotSeconds, Integer.MAX_VALUE)) : 0));
+                if (when.isBefore(previous)) {
+                    when = previous; // Only past the last slot, when loans or FDs are still owed
+                }
+                previous = when;
+                runScheduled(scheduled, when);
+
+                long loansLeft = loans - loansMade;
+                long fdsLeft = fds - fdsMade;
+                long pick = (long) (random.nextDouble() * Math.max(slots - slot, loansLeft + fdsLeft));
+                if (pick < loansLeft) {
+                    takeLoan(conn, pstmt, pstmtLoan, firstLoanId + loansMade, when, scheduled);
+                    loansMade++;
+                    slot++;
+                } else if (pick < loansLeft + fdsLeft) {
+                    requestFD(conn, pstmt, firstFDId + fdsMade, when, scheduled);
+                    fdsMade++;
+                    slot++;
+                } else {
+                    slot += regularActivity(conn, pstmt, when);
+                }
+            }
+            // What falls due before the end date; the rest has not happened yet
+            runScheduled(scheduled, end.atStartOfDay().minusSeconds(1));
+
+            pstmtLoan.executeBatch();
+            pstmt.executeBatch();
+        }
+    }
+
+    // A deposit, withdrawal or transfer at the given time; returns the number of ledger rows written
+    private int regularActivity(Connection conn, PreparedStatement pstmt, LocalDateTime when) throws SQLException {
+        int acc = activeAccount();
+        int kind = random.nextInt(100);
+        if (kind < 45) {
+            ledger(conn, pstmt, acc, amount(5_000, 200_000), acc, -1, "Deposit", when);
+            return 1;
+        }
+        double amount = amount(2_000, 100_000);
+        if (balances[acc] < amount) {
+            ledger(conn, pstmt, acc, amount, acc, -1, "Deposit", when); // Would overdraw
+            return 1;
+        }
+        if (kind < 75) {
+            ledger(conn, pstmt, acc, amount, -1, acc, "Withdrawal", when);
+            return 1;
+        }
+        int other = activeAccount();
+        if (other == acc) {
+            other = (acc + 1) % customers;
+        }
+        ledger(conn, pstmt, acc, amount, other, acc, "Transfer Out", when);
+        ledger(conn, pstmt, other, amount, other, acc, "Transfer In", when);
+        return 2;
+    }
+
+    private void takeLoan(Connection conn, PreparedStatement pstmt, PreparedStatement pstmtLoan, long id,
+                          LocalDateTime taken, PriorityQueue<Scheduled> scheduled) throws SQLException {
+        int acc = activeAccount();
+        double amount = Math.round(amount(100_000, 5_000_000) / 1000) * 1000.0;
+        double rate = 7 + random.nextInt(13) / 2.0;
+        int years = 1 + random.nextInt(10);
+        pstmtLoan.setLong(1, id);
+        pstmtLoan.setString(2, accounts[acc]);
+        pstmtLoan.setDouble(3, amount);
+        pstmtLoan.setDouble(4, rate);
+        pstmtLoan.setString(5, taken.toLocalDate().toString());
+        pstmtLoan.setInt(6, years);
+        pstmtLoan.addBatch();
+        if (++loanRows % batchSize == 0) {
+            pstmtLoan.executeBatch();
+        }
+        ledger(conn, pstmt, acc, amount, acc, -1, "Loan Taken", taken);
+
+        if (random.nextInt(10) < 3) {
+            // A part repayment, made only if the balance covers it then; full payoff needs LoanValuator
+            // and is left to the application
+            double repayAmount = Math.round(amount / 10);
+            scheduled.add(new Scheduled(taken.plusDays(30 + random.nextInt(365)), scheduledEvents++, repaid -> {
+                if (balances[acc] >= repayAmount) {
+                    ledger(conn, pstmt, acc, repayAmount, -1, acc, "Loan Repaid (ID: " + id + ")", repaid);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Records an FD request. One that the manager approves is funded a few hours later, if the balance
+     * covers it at that moment (otherwise it is rejected), and may be closed early at a later date.
+     * The FD row itself is written by insertFDs once its final status is known.
+     */
+    private void requestFD(Connection conn, PreparedStatement pstmt, long id, LocalDateTime created,
+                           PriorityQueue<Scheduled> scheduled) {
+        FDRecord fd = new FDRecord(id, activeAccount(), created);
+        fd.amount = Math.round(amount(10_000, 1_000_000) / 1000) * 1000.0;
+        fd.years = 1 + random.nextInt(5);
+        fd.rate = 5 + random.nextInt(7) / 2.0;
+        fdRecords.add(fd);
+        int roll = random.nextInt(20);
+        if (roll < 2) {
+            return; // Still Pending
+        }
+        if (roll < 3) {
+            fd.status = "Rejected";
+            return;
+        }
+        boolean closeEarly = roll >= 14;
+        LocalDateTime started = created.plusHours(1 + random.nextInt(72));
+        LocalDateTime closed = started.plusDays(1 + random.nextInt(
+                (int) Math.max(1, ChronoUnit.DAYS.between(started.toLocalDate(), end))));
+
+        scheduled.add(new Scheduled(started, scheduledEvents++, opened -> {
+            if (balances[fd.acc] < fd.amount) {
+                fd.status = "Rejected"; // Not enough funds when the manager looked at it
+                return;
+            }
+            fd.status = "Active";
+            fd.started = opened;
+            ledger(conn, pstmt, fd.acc, fd.amount, -1, fd.acc, "FD Opened (ID: " + fd.id + ")", opened);
+            if (closeEarly) {
+                scheduled.add(new Scheduled(closed, scheduledEvents++, closedAt -> {
+                    // Simple interest for the days held, as FDEngine pays it
+                    fd.interest = Math.round(fd.amount * fd.rate / 100 * ChronoUnit.DAYS.between(fd.started, closedAt) / 365);
+                    fd.status = "Closed";
+                    fd.closed = closedAt;
+                    ledger(conn, pstmt, fd.acc, fd.amount + fd.interest, fd.acc, -1, "FD Closed (ID: " + fd.id + ")", closedAt);
+                }));
+            }
+        }));
+    }
+
+    // Runs the scheduled events due at or before the given time, earliest first
+    private static void runScheduled(PriorityQueue<Scheduled> scheduled, LocalDateTime until) throws SQLException {
+        while (!scheduled.isEmpty() && !scheduled.peek().when.isAfter(until)) {
+            Scheduled next = scheduled.poll();
+            next.event.run(next.when);
+        }
+    }
+
+    private void insertFDs(Connection conn) throws SQLException {
+        String sql = "INSERT INTO FD (id, accno, created_at, start_date, amount, duration_years, status, interest_rate, " +
+                     "accrued_interest, closed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < fdRecords.size(); i++) {
+                FDRecord fd = fdRecords.get(i);
+                pstmt.setLong(1, fd.id);
+                pstmt.setString(2, accounts[fd.acc]);
+                pstmt.setString(3, timestamp(fd.created));
+                pstmt.setString(4, fd.started == null ? null : fd.started.toLocalDate().toString());
+                pstmt.setDouble(5, fd.amount);
+                pstmt.setInt(6, fd.years);
+                pstmt.setString(7, fd.status);
+                pstmt.setObject(8, "Pending".equals(fd.status) ? null : fd.rate);
+                pstmt.setDouble(9, fd.interest);
+                pstmt.setString(10, fd.closed == null ? null : fd.closed.toLocalDate().toString());
+                pstmt.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Adds one Transactions row for account index acc (toAcc/fromAcc: account indexes, -1 for NULL)
+     * and tracks the balance change. Flushes the batch every batchSize rows and commits every commitEvery.
+     */
+    private void ledger(Connection conn, PreparedStatement pstmt, int acc, double amount, int toAcc, int fromAcc,
+                        String type, LocalDateTime when) throws SQLException {
+        pstmt.setString(1, accounts[acc]);
+        pstmt.setDouble(2, amount);
+        pstmt.setString(3, toAcc < 0 ? null : accounts[toAcc]);
+        pstmt.setString(4, fromAcc < 0 ? null : accounts[fromAcc]);
+        pstmt.setString(5, type);
+        pstmt.setString(6, timestamp(when));
+        pstmt.addBatch();
+
+        // Same sign rule as BalanceDB.LEDGER_BALANCE_SQL: credit if the row's account received, debit if it sent
+        double delta = toAcc == acc ? amount : fromAcc == acc ? -amount : 0;
+        balances[acc] += delta;
+        unsavedDeltas[acc] += delta;
+
+        ledgerRows++;
+        uncommittedRows++;
+        if (ledgerRows % batchSize == 0) {
+            pstmt.executeBatch();
+        }
+        if (uncommittedRows >= commitEvery) {
+            pstmt.executeBatch();
+            commit(conn);
+            System.out.println("  " + ledgerRows + " ledger rows");
+        }
+    }
+
+    // Writes the pending balance changes and commits, so Account_Balance always matches the committed ledger
+    private void commit(Connection conn) throws SQLException {
+        // Same upsert as BalanceDB.applyDelta
+        String sql = "INSERT INTO Account_Balance (accno, balance) VALUES (?, ?) " +
+                     "ON CONFLICT(accno) DO UPDATE SET balance = balance + excluded.balance";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (int i = 0; i < customers; i++) {
+                if (unsavedDeltas[i] != 0) {
+                    pstmt.setString(1, accounts[i]);
+                    pstmt.setDouble(2, unsavedDeltas[i]);
+                    pstmt.addBatch();
+                    unsavedDeltas[i] = 0;
+                    if (++pending % batchSize == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+            }
+            pstmt.executeBatch();
+        }
+        conn.commit();
+        uncommittedRows = 0;
+    }
+
+    // Planner statistics for the data just loaded; without them SQLite guesses, and stale ones are worse
+    private void analyze(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+        conn.commit();
+        System.out.println("Refreshed planner statistics in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    // --- Random values ---
+
+    // Index of an active account: low indexes are picked far more often than high ones
+    private int activeAccount() {
+        return (int) (activeAccounts * Math.pow(random.nextDouble(), skew));
+    }
+
+    // Log-normal around the median, capped; whole rupees
+    private double amount(double median, double max) {
+        return Math.max(1, Math.min(max, Math.round(median * Math.exp(random.nextGaussian()))));
+    }
+
+    private LocalDateTime randomTime() {
+        return end.minusDays(days).atStartOfDay().plusSeconds((long) (random.nextDouble() * days * 86400));
+    }
+
+    private String name() {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String timestamp(LocalDateTime time) {
+        return time.format(TIMESTAMP);
+    }
+
+    // First id an AUTOINCREMENT table will hand out, so explicit ids (needed in ledger types) continue its sequence
+    private static long nextId(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 1;
+        }
+    }
+
+    private static int intOption(Map<String, String> options, String key) {
+        try {
+            int value = Integer.parseInt(options.get(key));
+            if (value < 0) {
+                throw new IllegalArgumentException("--" + key + " must not be negative.");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + key + " must be a whole number, got '" + options.get(key) + "'.");
+        }
+    }
+
+    private interface LedgerEvent {
+        void run(LocalDateTime when) throws SQLException;
+    }
+
+    // A loan repayment or FD opening or closure, run when the ledger reaches its time
+    private static final class Scheduled implements Comparable<Scheduled> {
+        final LocalDateTime when;
+        final long sequence;
+        final LedgerEvent event;
+
+        Scheduled(LocalDateTime when, long sequence, LedgerEvent event) {
+            this.when = when;
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        @Override
+        public int compareTo(Scheduled other) {
+            int byTime = when.compareTo(other.when);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // An FD row, written after the ledger once its final status is known
+    private static final class FDRecord {
+        final long id;
+        final int acc;
+        final LocalDateTime created;
+        double amount;
+        int years;
+        double rate;
+        String status = "Pending";
+        LocalDateTime started;
+        LocalDateTime closed;
+        double interest;
+
+        FDRecord(long id, int acc, LocalDateTime created) {
+            this.id = id;
+            this.acc = acc;
+            this.created = created;
+        }
+    }
+}
\ No newline at end of file
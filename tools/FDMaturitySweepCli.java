@@ -0,0 +1,30 @@
+package tools;
+
+import db.DatabaseUtil;
+import db.FDMaturitySweeper;
+import db.LedgerWriter;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Command-line entry point for the FD maturity sweep.
+ * Usage: java tools.FDMaturitySweepCli [YYYY-MM-DD]   (defaults to today)
+ */
+public class FDMaturitySweepCli {
+
+    public static void main(String[] args) {
+        LocalDate date = args.length > 0 ? LocalDate.parse(args[0]) : LocalDate.now();
+        int status = 0;
+        try {
+            FDMaturitySweeper.Summary summary = FDMaturitySweeper.run(date);
+            System.out.println(summary);
+        } catch (SQLException e) {
+            System.err.println("FD maturity sweep failed: " + e.getMessage());
+            status = 1;
+        }
+        LedgerWriter.shutdown();
+        DatabaseUtil.shutdown();
+        System.exit(status);
+    }
+}
\ No newline at end of file
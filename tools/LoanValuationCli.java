@@ -0,0 +1,28 @@
+package tools;
+
+import db.DatabaseUtil;
+import db.LoanValuationJob;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Command-line entry point for the end-of-day loan valuation job.
+ * Usage: java tools.LoanValuationCli [YYYY-MM-DD]   (defaults to today)
+ */
+public class LoanValuationCli {
+
+    public static void main(String[] args) {
+        LocalDate date = args.length > 0 ? LocalDate.parse(args[0]) : LocalDate.now();
+        int status = 0;
+        try {
+            LoanValuationJob.Summary summary = LoanValuationJob.run(date);
+            System.out.println(summary);
+        } catch (SQLException e) {
+            System.err.println("Loan valuation failed: " + e.getMessage());
+            status = 1;
+        }
+        DatabaseUtil.shutdown();
+        System.exit(status);
+    }
+}
\ No newline at end of file
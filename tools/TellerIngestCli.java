@@ -0,0 +1,45 @@
+package tools;
+
+import db.DatabaseUtil;
+import db.LedgerWriter;
+import db.TellerIngestion;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * Command-line entry point for bulk teller ingestion.
+ * Usage: java tools.TellerIngestCli <input.csv> [results.csv]   (results go to stdout if omitted)
+ */
+public class TellerIngestCli {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.TellerIngestCli <input.csv> [results.csv]");
+            System.exit(2);
+        }
+        int status = 0;
+        try (Reader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             PrintWriter out = args.length > 1
+                     ? new PrintWriter(Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8))
+                     : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            TellerIngestion.Summary summary = TellerIngestion.ingest(in, out);
+            System.err.println(summary);
+            if (summary.getRejected() > 0) {
+                status = 1;
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("Teller ingestion failed: " + e.getMessage());
+            status = 2;
+        }
+        LedgerWriter.shutdown();
+        DatabaseUtil.shutdown();
+        System.exit(status);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package tools;
+
+import db.BalanceDB;
+import db.DatabaseUtil;
+import model.BalanceDrift;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Command-line entry point for the balance verification job.
+ * Recomputes every account balance from the Transactions ledger and prints the accounts
+ * whose Account_Balance row disagrees. Exits with status 1 if any drift is found,
+ * and 2 if the verification itself failed (e.g. database locked or missing).
+ */
+public class VerifyBalances {
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            List<BalanceDrift> drifts = BalanceDB.verifyBalances();
+            for (BalanceDrift drift : drifts) {
+                System.out.println(String.format("%s stored=%.2f ledger=%.2f drift=%.2f",
+                        drift.getAccountNumber(), drift.getStoredBalance(), drift.getLedgerBalance(), drift.getDrift()));
+            }
+            status = drifts.isEmpty() ? 0 : 1;
+        } catch (SQLException e) {
+            System.err.println("Balance verification failed: " + e.getMessage());
+            status = 2;
+        }
+        DatabaseUtil.shutdown();
+        System.exit(status);
+    }
+}
\ No newline at end of file